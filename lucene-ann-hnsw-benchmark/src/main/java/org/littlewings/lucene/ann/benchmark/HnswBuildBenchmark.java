@@ -0,0 +1,46 @@
+package org.littlewings.lucene.ann.benchmark;
+
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to build an index of numDocs vectors, build throughput = numDocs / score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class HnswBuildBenchmark {
+    @Param({"50000"})
+    int numDocs;
+
+    @Param({"128"})
+    int dimension;
+
+    @Param({"8", "16", "32"})
+    int maxConn;
+
+    @Param({"50", "100", "200"})
+    int beamWidth;
+
+    SyntheticIndex syntheticIndex;
+
+    @Setup
+    public void setUp() {
+        syntheticIndex = new SyntheticIndex(42L, numDocs, dimension);
+    }
+
+    @Benchmark
+    public int build() throws IOException {
+        try (Directory directory = new ByteBuffersDirectory()) {
+            syntheticIndex.write(directory, maxConn, beamWidth);
+            return directory.listAll().length;
+        }
+    }
+}
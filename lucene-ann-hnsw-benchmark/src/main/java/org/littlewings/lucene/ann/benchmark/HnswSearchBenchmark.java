@@ -0,0 +1,145 @@
+package org.littlewings.lucene.ann.benchmark;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.KnnFloatVectorQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency per (maxConn, beamWidth, k, selectivity).
+ * Recall against the exact top-k and the HNSW graph size are appended to hnsw-quality.jsonl as JSON lines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HnswSearchBenchmark {
+    static final int NUM_QUERIES = 100;
+
+    @Param({"50000"})
+    int numDocs;
+
+    @Param({"128"})
+    int dimension;
+
+    @Param({"8", "16", "32"})
+    int maxConn;
+
+    @Param({"50", "100", "200"})
+    int beamWidth;
+
+    @Param({"10", "100"})
+    int k;
+
+    @Param({"1.0", "0.1", "0.01"})
+    double selectivity;
+
+    @Param({"hnsw-quality.jsonl"})
+    String qualityOutput;
+
+    SyntheticIndex syntheticIndex;
+    Directory directory;
+    DirectoryReader reader;
+    IndexSearcher searcher;
+    Query filter;
+
+    float[][] queries;
+    int queryIndex;
+
+    @Setup
+    public void setUp() throws IOException {
+        syntheticIndex = new SyntheticIndex(42L, numDocs, dimension);
+        queries = SyntheticIndex.randomVectors(new Random(4242L), NUM_QUERIES, dimension);
+
+        directory = new ByteBuffersDirectory();
+        syntheticIndex.write(directory, maxConn, beamWidth);
+
+        reader = DirectoryReader.open(directory);
+        searcher = new IndexSearcher(reader);
+        filter = SyntheticIndex.filter(selectivity);
+
+        writeQuality();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        reader.close();
+        directory.close();
+    }
+
+    void writeQuality() throws IOException {
+        int found = 0;
+        int expectedCount = 0;
+
+        for (float[] query : queries) {
+            int[] expected = syntheticIndex.exactTopK(query, k, selectivity);
+            TopDocs topDocs = searcher.search(new KnnFloatVectorQuery(SyntheticIndex.VECTOR_FIELD, query, k, filter), k);
+
+            for (int doc : expected) {
+                if (doc < 0) {
+                    continue;
+                }
+
+                expectedCount++;
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    if (scoreDoc.doc == doc) {
+                        found++;
+                        break;
+                    }
+                }
+            }
+        }
+
+        long graphBytes = bytesOf(".vex");
+        long vectorBytes = bytesOf(".vec");
+
+        String line = String.format(
+                Locale.ROOT,
+                "{\"numDocs\":%d,\"dimension\":%d,\"maxConn\":%d,\"beamWidth\":%d,\"k\":%d,\"selectivity\":%s,\"recall\":%.4f,\"graphBytes\":%d,\"vectorBytes\":%d}%n",
+                numDocs, dimension, maxConn, beamWidth, k, selectivity,
+                expectedCount == 0 ? 1.0 : (double) found / expectedCount,
+                graphBytes, vectorBytes
+        );
+
+        System.out.print(line);
+        Files.writeString(
+                Path.of(qualityOutput),
+                line,
+                StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND
+        );
+    }
+
+    long bytesOf(String extension) throws IOException {
+        long bytes = 0L;
+
+        for (String file : Arrays.stream(directory.listAll()).filter(f -> f.endsWith(extension)).toList()) {
+            bytes += directory.fileLength(file);
+        }
+
+        return bytes;
+    }
+
+    @Benchmark
+    public TopDocs search() throws IOException {
+        float[] query = queries[queryIndex++ % NUM_QUERIES];
+        return searcher.search(new KnnFloatVectorQuery(SyntheticIndex.VECTOR_FIELD, query, k, filter), k);
+    }
+}
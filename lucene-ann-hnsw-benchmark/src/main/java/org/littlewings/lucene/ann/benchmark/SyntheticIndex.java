@@ -0,0 +1,124 @@
+package org.littlewings.lucene.ann.benchmark;
+
+import org.apache.lucene.codecs.KnnVectorsFormat;
+import org.apache.lucene.codecs.lucene99.Lucene99Codec;
+import org.apache.lucene.codecs.lucene99.Lucene99HnswVectorsFormat;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntField;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.store.Directory;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Random gaussian vectors and a "bucket" field (0 - 999) used as the filter.
+ * Documents are written into a single segment, so docID == vector ordinal.
+ */
+public class SyntheticIndex {
+    public static final String VECTOR_FIELD = "vector";
+    public static final String BUCKET_FIELD = "bucket";
+    public static final int BUCKETS = 1000;
+    public static final VectorSimilarityFunction SIMILARITY = VectorSimilarityFunction.EUCLIDEAN;
+
+    private final float[][] vectors;
+    private final int[] buckets;
+
+    public SyntheticIndex(long seed, int numDocs, int dimension) {
+        Random random = new Random(seed);
+        vectors = randomVectors(random, numDocs, dimension);
+        buckets = new int[numDocs];
+
+        for (int i = 0; i < numDocs; i++) {
+            buckets[i] = random.nextInt(BUCKETS);
+        }
+    }
+
+    public static float[][] randomVectors(Random random, int count, int dimension) {
+        float[][] vectors = new float[count][dimension];
+
+        for (float[] vector : vectors) {
+            for (int i = 0; i < dimension; i++) {
+                vector[i] = (float) random.nextGaussian();
+            }
+        }
+
+        return vectors;
+    }
+
+    public static IndexWriterConfig newIndexWriterConfig(int maxConn, int beamWidth) {
+        KnnVectorsFormat knnVectorsFormat = new Lucene99HnswVectorsFormat(maxConn, beamWidth);
+
+        IndexWriterConfig config = new IndexWriterConfig();
+        config.setCodec(new Lucene99Codec() {
+            @Override
+            public KnnVectorsFormat getKnnVectorsFormatForField(String field) {
+                return knnVectorsFormat;
+            }
+        });
+        config.setRAMBufferSizeMB(1024);
+        return config;
+    }
+
+    public void write(Directory directory, int maxConn, int beamWidth) throws IOException {
+        try (IndexWriter writer = new IndexWriter(directory, newIndexWriterConfig(maxConn, beamWidth))) {
+            for (int i = 0; i < vectors.length; i++) {
+                Document document = new Document();
+                document.add(new KnnFloatVectorField(VECTOR_FIELD, vectors[i], SIMILARITY));
+                document.add(new IntField(BUCKET_FIELD, buckets[i], Field.Store.NO));
+                writer.addDocument(document);
+            }
+        }
+    }
+
+    public static int maxBucket(double selectivity) {
+        return (int) Math.ceil(BUCKETS * selectivity) - 1;
+    }
+
+    public static Query filter(double selectivity) {
+        return selectivity >= 1.0 ? null : IntPoint.newRangeQuery(BUCKET_FIELD, 0, maxBucket(selectivity));
+    }
+
+    public int[] exactTopK(float[] query, int k, double selectivity) {
+        int maxBucket = maxBucket(selectivity);
+
+        int[] docs = new int[k];
+        float[] scores = new float[k];
+        Arrays.fill(scores, Float.NEGATIVE_INFINITY);
+        Arrays.fill(docs, -1);
+
+        for (int doc = 0; doc < vectors.length; doc++) {
+            if (buckets[doc] > maxBucket) {
+                continue;
+            }
+
+            float score = SIMILARITY.compare(query, vectors[doc]);
+            if (score <= scores[k - 1]) {
+                continue;
+            }
+
+            // insertion into the sorted top-k
+            int i = k - 1;
+            while (i > 0 && scores[i - 1] < score) {
+                scores[i] = scores[i - 1];
+                docs[i] = docs[i - 1];
+                i--;
+            }
+            scores[i] = score;
+            docs[i] = doc;
+        }
+
+        return docs;
+    }
+
+    public int size() {
+        return vectors.length;
+    }
+}
@@ -48,7 +48,7 @@ class AnnSearchTest {
     }
 
     List<Document> createDocuments() {
-        return List.of(
+        List<Document> documents = List.of(
                 createDocument(
                         "The Time Machine",
                         "A man travels through time and witnesses the evolution of humanity.",
@@ -128,6 +128,28 @@ class AnnSearchTest {
                         2008
                 )
         );
+
+        addDescriptionVectors(documents);
+
+        return documents;
+    }
+
+    void addDescriptionVectors(List<Document> documents) {
+        List<EmbeddingClient.EmbeddingRequest> requests =
+                documents.stream()
+                        .map(document -> new EmbeddingClient.EmbeddingRequest(
+                                "intfloat/multilingual-e5-base",
+                                "passage: " + document.get("description")
+                        ))
+                        .toList();
+
+        List<EmbeddingClient.EmbeddingResponse> responses = embeddingClient.executeAll(requests);
+
+        for (int i = 0; i < documents.size(); i++) {
+            documents.get(i).add(
+                    new KnnFloatVectorField("description_vector", responses.get(i).embedding(), VectorSimilarityFunction.EUCLIDEAN)
+            );
+        }
     }
 
     Document createDocument(String name, String description, String author, int year) {
@@ -137,9 +159,6 @@ class AnnSearchTest {
         document.add(new TextField("author", author, Field.Store.YES));
         document.add(new IntField("year", year, Field.Store.YES));
 
-        float[] vector = textToVector("passage: " + description);
-        document.add(new KnnFloatVectorField("description_vector", vector, VectorSimilarityFunction.EUCLIDEAN));
-
         return document;
     }
 
@@ -150,14 +169,7 @@ class AnnSearchTest {
                         text
                 );
 
-        EmbeddingClient.EmbeddingResponse response = embeddingClient.execute(request);
-
-        float[] vector = new float[response.embedding().size()];
-        for (int i = 0; i < response.embedding().size(); i++) {
-            vector[i] = response.embedding().get(i);
-        }
-
-        return vector;
+        return embeddingClient.execute(request).embedding();
     }
 
     /*
@@ -294,8 +306,9 @@ class AnnSearchTest {
                 writer.addDocuments(documents);
             }
 
-            try (DirectoryReader reader = DirectoryReader.open(directory)) {
-                IndexSearcher searcher = new IndexSearcher(reader);
+            try (DirectoryReader reader = DirectoryReader.open(directory);
+                 AnnSearcherFactory searcherFactory = AnnSearcherFactory.forkJoin(Runtime.getRuntime().availableProcessors())) {
+                IndexSearcher searcher = searcherFactory.newSearcher(reader, null);
 
                 int k = documents.size() - 1; // all documents - 1
 
@@ -0,0 +1,61 @@
+package org.littlewings.lucene.ann;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.TieredMergePolicy;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+
+public class AnnSearcherFactory extends SearcherFactory implements AutoCloseable {
+    private ExecutorService executorService;
+    private Executor executor;
+
+    AnnSearcherFactory(ExecutorService executorService, Executor executor) {
+        this.executorService = executorService;
+        this.executor = executor;
+    }
+
+    public static AnnSearcherFactory forkJoin(int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        return new AnnSearcherFactory(pool, pool);
+    }
+
+    public static AnnSearcherFactory virtualThreads(int maxConcurrency) {
+        ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+        Semaphore permits = new Semaphore(maxConcurrency);
+
+        return new AnnSearcherFactory(
+                executorService,
+                command -> executorService.execute(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        command.run();
+                    } finally {
+                        permits.release();
+                    }
+                })
+        );
+    }
+
+    public static TieredMergePolicy mergePolicy(double segmentsPerTier, double maxMergedSegmentMB) {
+        TieredMergePolicy mergePolicy = new TieredMergePolicy();
+        mergePolicy.setSegmentsPerTier(segmentsPerTier);
+        mergePolicy.setMaxMergedSegmentMB(maxMergedSegmentMB);
+        return mergePolicy;
+    }
+
+    @Override
+    public IndexSearcher newSearcher(IndexReader reader, IndexReader previousReader) {
+        return new IndexSearcher(reader, executor);
+    }
+
+    @Override
+    public void close() {
+        executorService.close();
+    }
+}
@@ -3,14 +3,23 @@ package org.littlewings.lucene.ann;
 import org.apache.lucene.codecs.FilterCodec;
 import org.apache.lucene.codecs.KnnVectorsFormat;
 import org.apache.lucene.codecs.lucene99.Lucene99Codec;
+import org.apache.lucene.codecs.lucene99.Lucene99HnswScalarQuantizedVectorsFormat;
 import org.apache.lucene.codecs.lucene99.Lucene99HnswVectorsFormat;
 import org.apache.lucene.codecs.perfield.PerFieldKnnVectorsFormat;
 
+import java.util.Map;
+import java.util.stream.Collectors;
+
 public class MyCustomCodec extends FilterCodec {
-    private KnnVectorsFormat knnVectorsFormat = new MyKnnVectorsFormat();
+    private KnnVectorsFormat knnVectorsFormat;
 
     public MyCustomCodec() {
+        this(Map.of("description_vector", new VectorFormatConfig(32, 150, Quantization.NONE)));
+    }
+
+    public MyCustomCodec(Map<String, VectorFormatConfig> vectorFormatConfigs) {
         super("MyCustom", new Lucene99Codec());
+        knnVectorsFormat = new MyKnnVectorsFormat(vectorFormatConfigs);
     }
 
     @Override
@@ -18,19 +27,38 @@ public class MyCustomCodec extends FilterCodec {
         return knnVectorsFormat;
     }
 
+    public enum Quantization {
+        NONE,
+        // 4-bit quantization (bits/compress) is not available in Lucene 9.10
+        INT8
+    }
+
+    public record VectorFormatConfig(int maxConn, int beamWidth, Quantization quantization) {
+        public KnnVectorsFormat toKnnVectorsFormat() {
+            return switch (quantization) {
+                case NONE -> new Lucene99HnswVectorsFormat(maxConn, beamWidth);
+                case INT8 -> new Lucene99HnswScalarQuantizedVectorsFormat(maxConn, beamWidth, 1, null, null);
+            };
+        }
+    }
+
     static class MyKnnVectorsFormat extends PerFieldKnnVectorsFormat {
         private KnnVectorsFormat defaultKnnVectorsFormat = new Lucene99HnswVectorsFormat();
-        private KnnVectorsFormat forDescriptionVectorField = new Lucene99HnswVectorsFormat(32, 150);
+        private Map<String, KnnVectorsFormat> knnVectorsFormats;
+
+        MyKnnVectorsFormat(Map<String, VectorFormatConfig> vectorFormatConfigs) {
+            knnVectorsFormats =
+                    vectorFormatConfigs
+                            .entrySet()
+                            .stream()
+                            .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().toKnnVectorsFormat()));
+        }
 
         @Override
         public KnnVectorsFormat getKnnVectorsFormatForField(String field) {
             System.out.printf("KnnVectorsFormat#getKnnVectorsFormatForField = %s%n", field);
 
-            if ("description_vector".equals(field)) {
-                return forDescriptionVectorField;
-            } else {
-                return defaultKnnVectorsFormat;
-            }
+            return knnVectorsFormats.getOrDefault(field, defaultKnnVectorsFormat);
         }
     }
 }
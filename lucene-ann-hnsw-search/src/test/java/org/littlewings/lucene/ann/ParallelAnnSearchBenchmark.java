@@ -0,0 +1,129 @@
+package org.littlewings.lucene.ann;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.KnnFloatVectorQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SampleTime mode reports p50 / p99 of the per query latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParallelAnnSearchBenchmark {
+    static final int NUM_DOCS = 100_000;
+    static final int NUM_QUERIES = 100;
+    static final int DIMENSION = 128;
+
+    @Param({"1", "4", "16"})
+    int segments;
+
+    // noMerge: exactly "segments" segments, tiered: AnnSearcherFactory#mergePolicy tuned for about "segments" segments
+    @Param({"noMerge", "tiered"})
+    String segmentPolicy;
+
+    @Param({"0", "2", "4", "8"})
+    int parallelism;
+
+    @Param({"forkJoin", "virtualThreads"})
+    String executor;
+
+    @Param({"10", "100"})
+    int k;
+
+    Directory directory;
+    DirectoryReader reader;
+    AnnSearcherFactory searcherFactory;
+    IndexSearcher searcher;
+
+    float[][] queries;
+    int queryIndex;
+
+    public static void main(String... args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ParallelAnnSearchBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42L);
+        queries = RandomVectors.gaussian(random, NUM_QUERIES, DIMENSION);
+
+        directory = new ByteBuffersDirectory();
+
+        IndexWriterConfig config = new IndexWriterConfig();
+        config.setRAMBufferSizeMB(IndexWriterConfig.DISABLE_AUTO_FLUSH);
+
+        if (segmentPolicy.equals("noMerge")) {
+            // exactly "segments" segments
+            config.setMergePolicy(NoMergePolicy.INSTANCE);
+            config.setMaxBufferedDocs(NUM_DOCS / segments);
+        } else {
+            // many small flushes, merged by the tuned TieredMergePolicy
+            double vectorsMB = (double) NUM_DOCS * DIMENSION * Float.BYTES / 1024 / 1024;
+            config.setMergePolicy(AnnSearcherFactory.mergePolicy(Math.max(2, segments), Math.max(1.0, vectorsMB / segments)));
+            config.setMaxBufferedDocs(NUM_DOCS / 64);
+        }
+
+        try (IndexWriter writer = new IndexWriter(directory, config)) {
+            for (float[] vector : RandomVectors.gaussian(random, NUM_DOCS, DIMENSION)) {
+                Document document = new Document();
+                document.add(new KnnFloatVectorField("vector", vector, VectorSimilarityFunction.EUCLIDEAN));
+                writer.addDocument(document);
+            }
+        }
+
+        reader = DirectoryReader.open(directory);
+        System.out.printf("%nsegmentPolicy = %s, segments = %d%n", segmentPolicy, reader.leaves().size());
+
+        if (parallelism > 0) {
+            searcherFactory =
+                    executor.equals("forkJoin")
+                            ? AnnSearcherFactory.forkJoin(parallelism)
+                            : AnnSearcherFactory.virtualThreads(parallelism);
+            searcher = searcherFactory.newSearcher(reader, null);
+        } else {
+            searcher = new IndexSearcher(reader);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (searcherFactory != null) {
+            searcherFactory.close();
+        }
+
+        reader.close();
+        directory.close();
+    }
+
+    @Benchmark
+    public TopDocs search() throws IOException {
+        float[] query = queries[queryIndex++ % NUM_QUERIES];
+        return searcher.search(new KnnFloatVectorQuery("vector", query, k), k);
+    }
+}
@@ -0,0 +1,136 @@
+package org.littlewings.lucene.ann;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.KnnFloatVectorQuery;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class QuantizationBenchmark {
+    static final int NUM_DOCS = 20_000;
+    static final int NUM_QUERIES = 100;
+    static final int DIMENSION = 256;
+    static final int K = 10;
+    static final VectorSimilarityFunction SIMILARITY = VectorSimilarityFunction.EUCLIDEAN;
+
+    @Param({"NONE", "INT8"})
+    MyCustomCodec.Quantization quantization;
+
+    Directory directory;
+    DirectoryReader reader;
+    IndexSearcher searcher;
+
+    float[][] vectors;
+    float[][] queries;
+    int queryIndex;
+
+    public static void main(String... args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(QuantizationBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42L);
+        vectors = RandomVectors.gaussian(random, NUM_DOCS, DIMENSION);
+        queries = RandomVectors.gaussian(random, NUM_QUERIES, DIMENSION);
+
+        directory = new ByteBuffersDirectory();
+
+        IndexWriterConfig config = new IndexWriterConfig();
+        config.setCodec(new MyCustomCodec(Map.of("vector", new MyCustomCodec.VectorFormatConfig(16, 100, quantization))));
+        // single segment, docID == vector ordinal
+        config.setRAMBufferSizeMB(1024);
+
+        try (IndexWriter writer = new IndexWriter(directory, config)) {
+            for (float[] vector : vectors) {
+                Document document = new Document();
+                document.add(new KnnFloatVectorField("vector", vector, SIMILARITY));
+                writer.addDocument(document);
+            }
+        }
+
+        reader = DirectoryReader.open(directory);
+        searcher = new IndexSearcher(reader);
+
+        System.out.printf("%n[%s] recall@%d = %.4f%n", quantization, K, recall());
+
+        Map<String, Long> bytesPerExtension = new TreeMap<>();
+        for (String file : directory.listAll()) {
+            String extension = file.substring(file.lastIndexOf('.') + 1);
+            bytesPerExtension.merge(extension, directory.fileLength(file), Long::sum);
+        }
+        System.out.printf("[%s] index bytes per extension = %s%n", quantization, bytesPerExtension);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        reader.close();
+        directory.close();
+    }
+
+    double recall() throws IOException {
+        int found = 0;
+
+        for (float[] query : queries) {
+            int[] expected = exactTopK(query);
+            TopDocs topDocs = searcher.search(new KnnFloatVectorQuery("vector", query, K), K);
+
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                if (Arrays.stream(expected).anyMatch(doc -> doc == scoreDoc.doc)) {
+                    found++;
+                }
+            }
+        }
+
+        return (double) found / (NUM_QUERIES * K);
+    }
+
+    int[] exactTopK(float[] query) {
+        Integer[] docs = new Integer[NUM_DOCS];
+        float[] scores = new float[NUM_DOCS];
+
+        for (int doc = 0; doc < NUM_DOCS; doc++) {
+            docs[doc] = doc;
+            scores[doc] = SIMILARITY.compare(query, vectors[doc]);
+        }
+
+        Arrays.sort(docs, (d1, d2) -> Float.compare(scores[d2], scores[d1]));
+
+        return Arrays.stream(docs, 0, K).mapToInt(Integer::intValue).toArray();
+    }
+
+    @Benchmark
+    public TopDocs search() throws IOException {
+        float[] query = queries[queryIndex++ % NUM_QUERIES];
+        return searcher.search(new KnnFloatVectorQuery("vector", query, K), K);
+    }
+}
@@ -0,0 +1,20 @@
+package org.littlewings.lucene.ann;
+
+import java.util.Random;
+
+final class RandomVectors {
+    private RandomVectors() {
+    }
+
+    static float[][] gaussian(Random random, int count, int dimension) {
+        float[][] vectors = new float[count][dimension];
+
+        for (float[] vector : vectors) {
+            for (int i = 0; i < dimension; i++) {
+                vector[i] = (float) random.nextGaussian();
+            }
+        }
+
+        return vectors;
+    }
+}
@@ -0,0 +1,50 @@
+package org.littlewings.lucene.ann;
+
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.TieredMergePolicy;
+import org.apache.lucene.store.MMapDirectory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * MMapDirectory setup which keeps vectors and HNSW graphs off heap and preloads only the vector files.
+ */
+public final class VectorMMapDirectory {
+    // raw vectors, HNSW graph
+    public static final Set<String> VECTOR_EXTENSIONS = Set.of("vec", "vex");
+
+    private VectorMMapDirectory() {
+    }
+
+    public static MMapDirectory open(Path path) throws IOException {
+        return open(path, VECTOR_EXTENSIONS);
+    }
+
+    public static MMapDirectory open(Path path, Set<String> preloadExtensions) throws IOException {
+        MMapDirectory directory = new MMapDirectory(path);
+        directory.setPreload((name, context) -> isVectorFile(name, preloadExtensions));
+        return directory;
+    }
+
+    static boolean isVectorFile(String name, Set<String> extensions) {
+        String extension = IndexFileNames.getExtension(name);
+        return extension != null && extensions.contains(extension);
+    }
+
+    /**
+     * Preload hints match on file names, so segments must not be packed into compound (.cfs) files.
+     */
+    public static IndexWriterConfig indexWriterConfig() {
+        IndexWriterConfig config = new IndexWriterConfig();
+        config.setUseCompoundFile(false);
+
+        TieredMergePolicy mergePolicy = new TieredMergePolicy();
+        mergePolicy.setNoCFSRatio(0.0);
+        config.setMergePolicy(mergePolicy);
+
+        return config;
+    }
+}
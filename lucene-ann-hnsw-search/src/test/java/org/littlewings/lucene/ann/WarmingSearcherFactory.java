@@ -0,0 +1,130 @@
+package org.littlewings.lucene.ann;
+
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.FloatVectorValues;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SegmentReader;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Warms vector files of new segments before the searcher is published, so the first queries do not page fault.
+ * <p>
+ * Every page of the .vec / .vex files is touched, then a few searches are run with indexed vectors as targets
+ * to warm the HNSW search code path. Segments already warmed for a previous reader are skipped.
+ */
+public class WarmingSearcherFactory extends SearcherFactory {
+    static final int PAGE_SIZE = 4096;
+
+    private SearcherFactory delegate;
+    private String field;
+    private int warmUpQueries;
+    private Set<String> extensions;
+
+    private Set<Object> warmedSegments = new HashSet<>();
+
+    private AtomicLong warmedBytes = new AtomicLong();
+    private AtomicLong lastWarmUpNanos = new AtomicLong();
+
+    public WarmingSearcherFactory(SearcherFactory delegate, String field, int warmUpQueries) {
+        this(delegate, field, warmUpQueries, VectorMMapDirectory.VECTOR_EXTENSIONS);
+    }
+
+    public WarmingSearcherFactory(SearcherFactory delegate, String field, int warmUpQueries, Set<String> extensions) {
+        this.delegate = delegate;
+        this.field = field;
+        this.warmUpQueries = warmUpQueries;
+        this.extensions = extensions;
+    }
+
+    @Override
+    public IndexSearcher newSearcher(IndexReader reader, IndexReader previousReader) throws IOException {
+        IndexSearcher searcher = delegate.newSearcher(reader, previousReader);
+
+        long startTime = System.nanoTime();
+
+        synchronized (warmedSegments) {
+            Set<Object> liveSegments = new HashSet<>();
+
+            for (LeafReaderContext context : reader.leaves()) {
+                LeafReader leafReader = FilterLeafReader.unwrap(context.reader());
+                Object coreKey = leafReader.getCoreCacheHelper() != null ? leafReader.getCoreCacheHelper().getKey() : leafReader;
+                liveSegments.add(coreKey);
+
+                if (warmedSegments.contains(coreKey)) {
+                    continue;
+                }
+
+                if (leafReader instanceof SegmentReader segmentReader) {
+                    touchVectorFiles(segmentReader);
+                }
+
+                searchWithIndexedVectors(leafReader);
+            }
+
+            warmedSegments.retainAll(liveSegments);
+            warmedSegments.addAll(liveSegments);
+        }
+
+        lastWarmUpNanos.set(System.nanoTime() - startTime);
+
+        return searcher;
+    }
+
+    void touchVectorFiles(SegmentReader segmentReader) throws IOException {
+        Directory directory = segmentReader.directory();
+
+        for (String file : segmentReader.getSegmentInfo().files()) {
+            if (!VectorMMapDirectory.isVectorFile(file, extensions)) {
+                continue;
+            }
+
+            try (IndexInput input = directory.openInput(file, IOContext.READONCE)) {
+                long length = input.length();
+
+                for (long position = 0; position < length; position += PAGE_SIZE) {
+                    input.seek(position);
+                    input.readByte();
+                }
+
+                warmedBytes.addAndGet(length);
+            }
+        }
+    }
+
+    void searchWithIndexedVectors(LeafReader leafReader) throws IOException {
+        FloatVectorValues vectorValues = leafReader.getFloatVectorValues(field);
+
+        if (vectorValues == null) {
+            return;
+        }
+
+        int step = Math.max(1, vectorValues.size() / Math.max(1, warmUpQueries));
+        int queries = 0;
+
+        for (int doc = vectorValues.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS && queries < warmUpQueries; doc = vectorValues.advance(doc + step)) {
+            float[] target = vectorValues.vectorValue().clone();
+            leafReader.searchNearestVectors(field, target, 10, leafReader.getLiveDocs(), Integer.MAX_VALUE);
+            queries++;
+        }
+    }
+
+    public long getWarmedBytes() {
+        return warmedBytes.get();
+    }
+
+    public long getLastWarmUpNanos() {
+        return lastWarmUpNanos.get();
+    }
+}
@@ -0,0 +1,83 @@
+package org.littlewings.lucene.ann;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.KnnFloatVectorQuery;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.MMapDirectory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WarmingSearcherFactoryTest {
+    @TempDir
+    Path indexPath;
+
+    @Test
+    void warmVectorFilesOnReaderOpen() throws IOException {
+        Random random = new Random(42L);
+
+        try (MMapDirectory directory = VectorMMapDirectory.open(indexPath);
+             IndexWriter writer = new IndexWriter(directory, VectorMMapDirectory.indexWriterConfig())) {
+            float[][] vectors = RandomVectors.gaussian(random, 1000, 32);
+
+            for (float[] vector : vectors) {
+                Document document = new Document();
+                document.add(new KnnFloatVectorField("vector", vector, VectorSimilarityFunction.EUCLIDEAN));
+                writer.addDocument(document);
+            }
+            writer.commit();
+
+            assertThat(directory.listAll())
+                    .anyMatch(file -> file.endsWith(".vec"))
+                    .anyMatch(file -> file.endsWith(".vex"))
+                    .noneMatch(file -> file.endsWith(".cfs"));
+
+            WarmingSearcherFactory searcherFactory = new WarmingSearcherFactory(new SearcherFactory(), "vector", 5);
+
+            try (SearcherManager searcherManager = new SearcherManager(directory, searcherFactory)) {
+                long vectorBytes =
+                        Arrays.stream(directory.listAll())
+                                .filter(file -> VectorMMapDirectory.isVectorFile(file, VectorMMapDirectory.VECTOR_EXTENSIONS))
+                                .mapToLong(file -> {
+                                    try {
+                                        return directory.fileLength(file);
+                                    } catch (IOException e) {
+                                        throw new UncheckedIOException(e);
+                                    }
+                                })
+                                .sum();
+
+                assertThat(searcherFactory.getWarmedBytes()).isEqualTo(vectorBytes);
+                assertThat(searcherFactory.getLastWarmUpNanos()).isPositive();
+
+                // unchanged segments are not warmed again
+                writer.addDocument(new Document());
+                writer.commit();
+                searcherManager.maybeRefreshBlocking();
+
+                assertThat(searcherFactory.getWarmedBytes()).isEqualTo(vectorBytes);
+
+                IndexSearcher searcher = searcherManager.acquire();
+                try {
+                    TopDocs topDocs = searcher.search(new KnnFloatVectorQuery("vector", vectors[0], 3), 3);
+                    assertThat(topDocs.scoreDocs[0].doc).isZero();
+                } finally {
+                    searcherManager.release(searcher);
+                }
+            }
+        }
+    }
+}
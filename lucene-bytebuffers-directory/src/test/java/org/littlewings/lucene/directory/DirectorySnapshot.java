@@ -0,0 +1,89 @@
+package org.littlewings.lucene.directory;
+
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Writes the latest commit of a Directory (typically a ByteBuffersDirectory) into a single file.
+ * <p>
+ * Layout: file data back to back, then the file table (count, [name, offset, length]...),
+ * then a fixed size footer (table offset, magic). {@link MMapSnapshotDirectory} maps it back without copying.
+ */
+public final class DirectorySnapshot {
+    static final int MAGIC = 0x4C53_4E50;  // "LSNP"
+    static final int VERSION = 1;
+    static final int FOOTER_LENGTH = Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+
+    private DirectorySnapshot() {
+    }
+
+    public static void write(Directory source, Path target) throws IOException {
+        SegmentInfos segmentInfos = SegmentInfos.readLatestCommit(source);
+        TreeSet<String> files = new TreeSet<>(segmentInfos.files(true));
+
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (OutputStream fileStream = Files.newOutputStream(temporary);
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(fileStream, COPY_BUFFER_SIZE))) {
+            List<Entry> entries = new ArrayList<>(files.size());
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            long offset = 0L;
+
+            for (String file : files) {
+                try (IndexInput input = source.openInput(file, IOContext.READONCE)) {
+                    long length = input.length();
+                    long remaining = length;
+
+                    while (remaining > 0) {
+                        int chunk = (int) Math.min(buffer.length, remaining);
+                        input.readBytes(buffer, 0, chunk);
+                        output.write(buffer, 0, chunk);
+                        remaining -= chunk;
+                    }
+
+                    entries.add(new Entry(file, offset, length));
+                    offset += length;
+                }
+            }
+
+            long tableOffset = offset;
+            output.writeInt(entries.size());
+            for (Entry entry : entries) {
+                output.writeUTF(entry.name());
+                output.writeLong(entry.offset());
+                output.writeLong(entry.length());
+            }
+
+            output.writeLong(tableOffset);
+            output.writeInt(VERSION);
+            output.writeInt(MAGIC);
+            output.flush();
+        }
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    record Entry(String name, long offset, long length) {
+    }
+}
@@ -0,0 +1,207 @@
+package org.littlewings.lucene.directory;
+
+import org.apache.lucene.store.BaseDirectory;
+import org.apache.lucene.store.ByteBuffersDataInput;
+import org.apache.lucene.store.ByteBuffersIndexInput;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.NoLockFactory;
+
+import java.io.DataInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Read only Directory over a file written by {@link DirectorySnapshot}.
+ * <p>
+ * Each contained file is memory mapped in place (chunks of 1GB, as ByteBuffers are int indexed),
+ * nothing is copied to the heap. Mappings are released by the GC after close.
+ */
+public class MMapSnapshotDirectory extends BaseDirectory {
+    static final int DEFAULT_CHUNK_SIZE = 1 << 30;
+
+    private Path path;
+    private Map<String, List<ByteBuffer>> files;
+    private Map<String, Long> fileLengths;
+
+    public MMapSnapshotDirectory(Path path) throws IOException {
+        this(path, DEFAULT_CHUNK_SIZE);
+    }
+
+    MMapSnapshotDirectory(Path path, int chunkSize) throws IOException {
+        super(NoLockFactory.INSTANCE);
+
+        if (Integer.bitCount(chunkSize) != 1) {
+            throw new IllegalArgumentException("chunkSize must be a power of 2, but " + chunkSize);
+        }
+
+        this.path = path;
+
+        Map<String, List<ByteBuffer>> files = new TreeMap<>();
+        Map<String, Long> fileLengths = new TreeMap<>();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < DirectorySnapshot.FOOTER_LENGTH) {
+                throw new IOException("not a directory snapshot, too short: " + path);
+            }
+
+            ByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY, size - DirectorySnapshot.FOOTER_LENGTH, DirectorySnapshot.FOOTER_LENGTH);
+            long tableOffset = footer.getLong();
+            int version = footer.getInt();
+            int magic = footer.getInt();
+
+            if (magic != DirectorySnapshot.MAGIC || version != DirectorySnapshot.VERSION) {
+                throw new IOException("not a directory snapshot, magic = " + Integer.toHexString(magic) + ", version = " + version + ": " + path);
+            }
+
+            ByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, tableOffset, size - DirectorySnapshot.FOOTER_LENGTH - tableOffset);
+            DataInputStream tableInput = new DataInputStream(new ByteBufferInputStream(table));
+
+            int count = tableInput.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = tableInput.readUTF();
+                long offset = tableInput.readLong();
+                long length = tableInput.readLong();
+
+                if (offset < 0 || offset + length > tableOffset) {
+                    throw new IOException("corrupt file table entry, " + name + " [" + offset + ", " + length + "]: " + path);
+                }
+
+                List<ByteBuffer> chunks = new ArrayList<>();
+                for (long position = 0; position < length || chunks.isEmpty(); position += chunkSize) {
+                    long chunkLength = Math.min(chunkSize, length - position);
+                    chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, offset + position, chunkLength));
+                }
+
+                files.put(name, Collections.unmodifiableList(chunks));
+                fileLengths.put(name, length);
+            }
+        }
+
+        this.files = files;
+        this.fileLengths = fileLengths;
+    }
+
+    @Override
+    public String[] listAll() {
+        ensureOpen();
+        return files.keySet().toArray(String[]::new);
+    }
+
+    @Override
+    public long fileLength(String name) throws IOException {
+        ensureOpen();
+
+        Long length = fileLengths.get(name);
+        if (length == null) {
+            throw new FileNotFoundException(name);
+        }
+
+        return length;
+    }
+
+    @Override
+    public IndexInput openInput(String name, IOContext context) throws IOException {
+        ensureOpen();
+
+        List<ByteBuffer> chunks = files.get(name);
+        if (chunks == null) {
+            throw new FileNotFoundException(name);
+        }
+
+        List<ByteBuffer> duplicates = chunks.stream().map(ByteBuffer::asReadOnlyBuffer).toList();
+        return new ByteBuffersIndexInput(
+                new ByteBuffersDataInput(duplicates),
+                "MMapSnapshotDirectory(path=\"" + path + "\", name=\"" + name + "\")"
+        );
+    }
+
+    @Override
+    public void deleteFile(String name) {
+        throw readOnly();
+    }
+
+    @Override
+    public IndexOutput createOutput(String name, IOContext context) {
+        throw readOnly();
+    }
+
+    @Override
+    public IndexOutput createTempOutput(String prefix, String suffix, IOContext context) {
+        throw readOnly();
+    }
+
+    @Override
+    public void sync(Collection<String> names) {
+        throw readOnly();
+    }
+
+    @Override
+    public void syncMetaData() {
+        throw readOnly();
+    }
+
+    @Override
+    public void rename(String source, String dest) {
+        throw readOnly();
+    }
+
+    @Override
+    public Set<String> getPendingDeletions() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public void close() {
+        isOpen = false;
+        files = Collections.emptyMap();
+        fileLengths = Collections.emptyMap();
+    }
+
+    UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("read only snapshot: " + path);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "@" + path + " lockFactory=" + lockFactory;
+    }
+
+    static class ByteBufferInputStream extends InputStream {
+        private ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.littlewings.lucene.directory;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MMapSnapshotDirectoryTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void snapshotAndReload() throws IOException, ParseException {
+        Path snapshot = tempDir.resolve("index.snapshot");
+        Analyzer analyzer = new StandardAnalyzer();
+
+        try (Directory directory = new ByteBuffersDirectory()) {
+            try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(analyzer))) {
+                for (String value : new String[]{"Apache Lucene", "Elasticsearch", "Apache Solr"}) {
+                    Document document = new Document();
+                    document.add(new TextField("field1", value, Field.Store.YES));
+                    writer.addDocument(document);
+                }
+            }
+
+            DirectorySnapshot.write(directory, snapshot);
+        }
+
+        try (Directory directory = new MMapSnapshotDirectory(snapshot);
+             DirectoryReader reader = DirectoryReader.open(directory)) {
+            IndexSearcher searcher = new IndexSearcher(reader);
+
+            TopDocs topDocs = searcher.search(new QueryParser("field1", analyzer).parse("field1: Apache"), 10);
+            StoredFields storedFields = searcher.storedFields();
+
+            assertThat(topDocs.scoreDocs).hasSize(2);
+            assertThat(storedFields.document(topDocs.scoreDocs[0].doc).get("field1")).isEqualTo("Apache Lucene");
+            assertThat(storedFields.document(topDocs.scoreDocs[1].doc).get("field1")).isEqualTo("Apache Solr");
+
+            assertThatThrownBy(() -> directory.createOutput("new-file", IOContext.DEFAULT))
+                    .isInstanceOf(UnsupportedOperationException.class);
+        }
+    }
+
+    @Test
+    void filesSpanningMultipleChunks() throws IOException {
+        Path snapshot = tempDir.resolve("index.snapshot");
+        Random random = new Random(42L);
+        byte[][] payloads = new byte[20][];
+
+        try (Directory directory = new ByteBuffersDirectory()) {
+            try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+                for (int i = 0; i < payloads.length; i++) {
+                    payloads[i] = new byte[10_000];
+                    random.nextBytes(payloads[i]);
+
+                    Document document = new Document();
+                    document.add(new StoredField("payload", payloads[i]));
+                    writer.addDocument(document);
+                }
+            }
+
+            DirectorySnapshot.write(directory, snapshot);
+
+            // 4KB chunks, stored fields data is split into many ByteBuffers
+            try (Directory reloaded = new MMapSnapshotDirectory(snapshot, 4096);
+                 DirectoryReader reader = DirectoryReader.open(reloaded)) {
+                assertThat(reloaded.listAll()).containsExactlyInAnyOrder(directory.listAll());
+
+                for (String file : directory.listAll()) {
+                    assertThat(reloaded.fileLength(file)).isEqualTo(directory.fileLength(file));
+                }
+
+                StoredFields storedFields = reader.storedFields();
+                for (int i = 0; i < payloads.length; i++) {
+                    assertThat(storedFields.document(i).getBinaryValue("payload").bytes).isEqualTo(payloads[i]);
+                }
+            }
+        }
+    }
+}
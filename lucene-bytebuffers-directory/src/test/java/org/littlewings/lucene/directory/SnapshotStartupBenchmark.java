@@ -0,0 +1,124 @@
+package org.littlewings.lucene.directory;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.util.IOUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from "process start" to the first answered query, for an index of sizeGB.
+ * <p>
+ * copyToHeap is what an in-memory index costs at boot even without re-indexing (the snapshot copied back into
+ * a ByteBuffersDirectory), mmapSnapshot opens the snapshot in place. Both run with a warm page cache, the 10GB
+ * case needs -Xmx above 10GB for copyToHeap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class SnapshotStartupBenchmark {
+    static final int PAYLOAD_SIZE = 16 * 1024;
+
+    @Param({"1", "10"})
+    int sizeGB;
+
+    Path workDirectory;
+    Path snapshot;
+
+    public static void main(String... args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SnapshotStartupBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workDirectory = Files.createTempDirectory("snapshot-benchmark");
+        snapshot = workDirectory.resolve("index.snapshot");
+
+        Random random = new Random(42L);
+        long numDocs = (long) sizeGB * 1024 * 1024 * 1024 / PAYLOAD_SIZE;
+
+        // random payloads do not compress, so the index size is close to sizeGB
+        try (Directory directory = FSDirectory.open(workDirectory.resolve("index"))) {
+            try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig().setRAMBufferSizeMB(256))) {
+                byte[] payload = new byte[PAYLOAD_SIZE];
+
+                for (long i = 0; i < numDocs; i++) {
+                    random.nextBytes(payload);
+
+                    Document document = new Document();
+                    document.add(new StringField("id", Long.toString(i), Field.Store.NO));
+                    document.add(new StoredField("payload", payload));
+                    writer.addDocument(document);
+                }
+
+                writer.forceMerge(1);
+            }
+
+            DirectorySnapshot.write(directory, snapshot);
+        }
+
+        System.out.printf("%n[%dGB] snapshot size = %d bytes%n", sizeGB, Files.size(snapshot));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        IOUtils.rm(workDirectory);
+    }
+
+    static TopDocs firstQuery(Directory directory) throws IOException {
+        try (DirectoryReader reader = DirectoryReader.open(directory)) {
+            IndexSearcher searcher = new IndexSearcher(reader);
+            TopDocs topDocs = searcher.search(new TermQuery(new Term("id", "0")), 1);
+            searcher.storedFields().document(topDocs.scoreDocs[0].doc);
+            return topDocs;
+        }
+    }
+
+    @Benchmark
+    public TopDocs copyToHeap() throws IOException {
+        try (Directory snapshotDirectory = new MMapSnapshotDirectory(snapshot);
+             Directory directory = new ByteBuffersDirectory()) {
+            for (String file : snapshotDirectory.listAll()) {
+                directory.copyFrom(snapshotDirectory, file, file, IOContext.READONCE);
+            }
+
+            return firstQuery(directory);
+        }
+    }
+
+    @Benchmark
+    public TopDocs mmapSnapshot() throws IOException {
+        try (Directory directory = new MMapSnapshotDirectory(snapshot)) {
+            return firstQuery(directory);
+        }
+    }
+}
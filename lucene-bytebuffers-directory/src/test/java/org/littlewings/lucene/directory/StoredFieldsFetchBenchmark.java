@@ -0,0 +1,110 @@
+package org.littlewings.lucene.directory;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-k export: Document per hit in score order (as the tests in this repository do) vs StoredFieldsFetcher.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StoredFieldsFetchBenchmark {
+    static final int NUM_DOCS = 200_000;
+
+    @Param({"10", "100", "1000"})
+    int topK;
+
+    Directory directory;
+    DirectoryReader reader;
+    ScoreDoc[] hits;
+
+    StoredFieldsFetcher fetcher = new StoredFieldsFetcher("id", "title");
+
+    public static void main(String... args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(StoredFieldsFetchBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42L);
+        directory = new ByteBuffersDirectory();
+
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+            for (int i = 0; i < NUM_DOCS; i++) {
+                Document document = new Document();
+                document.add(new StringField("id", "doc-" + i, Field.Store.YES));
+                document.add(new TextField("title", "title of document " + i, Field.Store.YES));
+                document.add(new TextField("body", "lorem ipsum dolor sit amet ".repeat(20) + i, Field.Store.YES));
+                document.add(new StoredField("price", random.nextInt(100_000)));
+                document.add(new StoredField("updated", random.nextLong()));
+                writer.addDocument(document);
+            }
+        }
+
+        reader = DirectoryReader.open(directory);
+
+        // random doc ids in descending score order, like a relevance ranked top-k
+        hits = new ScoreDoc[topK];
+        for (int i = 0; i < topK; i++) {
+            hits[i] = new ScoreDoc(random.nextInt(NUM_DOCS), topK - i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        reader.close();
+        directory.close();
+    }
+
+    @Benchmark
+    public List<Document> documentPerHit() throws IOException {
+        StoredFields storedFields = reader.storedFields();
+
+        return Arrays.stream(hits)
+                .map(scoreDoc -> {
+                    try {
+                        return storedFields.document(scoreDoc.doc);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .toList();
+    }
+
+    @Benchmark
+    public List<StoredFieldsFetcher.FetchedHit> batchedFetch() throws IOException {
+        return fetcher.fetch(reader, hits);
+    }
+}
@@ -0,0 +1,171 @@
+package org.littlewings.lucene.directory;
+
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.StoredFieldVisitor;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.search.ScoreDoc;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fetches only the requested stored fields of a batch of hits.
+ * <p>
+ * Hits are visited in doc id order, grouped per leaf with one StoredFields instance each, so consecutive docs
+ * in the same compressed block are decompressed once. Results are returned in the order of the given hits.
+ */
+public class StoredFieldsFetcher {
+    private String[] fields;
+    private Map<String, Integer> slots = new HashMap<>();
+
+    public StoredFieldsFetcher(String... fields) {
+        this.fields = fields.clone();
+
+        for (int i = 0; i < fields.length; i++) {
+            slots.put(fields[i], i);
+        }
+    }
+
+    public List<FetchedHit> fetch(IndexReader reader, ScoreDoc[] hits) throws IOException {
+        Integer[] docOrder = new Integer[hits.length];
+        for (int i = 0; i < hits.length; i++) {
+            docOrder[i] = i;
+        }
+        Arrays.sort(docOrder, (i1, i2) -> Integer.compare(hits[i1].doc, hits[i2].doc));
+
+        FetchedHit[] results = new FetchedHit[hits.length];
+        List<LeafReaderContext> leaves = reader.leaves();
+
+        int leafIndex = -1;
+        LeafReaderContext leaf = null;
+        StoredFields storedFields = null;
+        SlotVisitor visitor = null;
+
+        for (int i : docOrder) {
+            ScoreDoc hit = hits[i];
+
+            while (leaf == null || hit.doc >= leaf.docBase + leaf.reader().maxDoc()) {
+                leaf = leaves.get(++leafIndex);
+                storedFields = null;
+            }
+
+            if (storedFields == null) {
+                storedFields = leaf.reader().storedFields();
+                visitor = new SlotVisitor(slotsByFieldNumber(leaf.reader().getFieldInfos()));
+            }
+
+            Object[] values = new Object[fields.length];
+            visitor.values = values;
+            storedFields.document(hit.doc - leaf.docBase, visitor);
+
+            results[i] = new FetchedHit(hit.doc, hit.score, values);
+        }
+
+        return Arrays.asList(results);
+    }
+
+    int[] slotsByFieldNumber(FieldInfos fieldInfos) {
+        int maxFieldNumber = -1;
+        for (FieldInfo fieldInfo : fieldInfos) {
+            maxFieldNumber = Math.max(maxFieldNumber, fieldInfo.number);
+        }
+
+        int[] slotsByFieldNumber = new int[maxFieldNumber + 1];
+        Arrays.fill(slotsByFieldNumber, -1);
+
+        for (FieldInfo fieldInfo : fieldInfos) {
+            slotsByFieldNumber[fieldInfo.number] = slots.getOrDefault(fieldInfo.name, -1);
+        }
+
+        return slotsByFieldNumber;
+    }
+
+    public int slot(String field) {
+        Integer slot = slots.get(field);
+        if (slot == null) {
+            throw new IllegalArgumentException("not a fetched field: " + field);
+        }
+
+        return slot;
+    }
+
+    /**
+     * values[slot] is the stored value of fields[slot], a List when the field has multiple values, null when missing.
+     */
+    public record FetchedHit(int doc, float score, Object[] values) {
+        public Object value(int slot) {
+            return values[slot];
+        }
+    }
+
+    static class SlotVisitor extends StoredFieldVisitor {
+        private int[] slotsByFieldNumber;
+        Object[] values;
+
+        SlotVisitor(int[] slotsByFieldNumber) {
+            this.slotsByFieldNumber = slotsByFieldNumber;
+        }
+
+        @Override
+        public Status needsField(FieldInfo fieldInfo) {
+            return slotsByFieldNumber[fieldInfo.number] >= 0 ? Status.YES : Status.NO;
+        }
+
+        void add(FieldInfo fieldInfo, Object value) {
+            int slot = slotsByFieldNumber[fieldInfo.number];
+            Object current = values[slot];
+
+            if (current == null) {
+                values[slot] = value;
+            } else if (current instanceof MultiValue multiValue) {
+                multiValue.add(value);
+            } else {
+                MultiValue multiValue = new MultiValue();
+                multiValue.add(current);
+                multiValue.add(value);
+                values[slot] = multiValue;
+            }
+        }
+
+        @Override
+        public void binaryField(FieldInfo fieldInfo, byte[] value) {
+            add(fieldInfo, value);
+        }
+
+        @Override
+        public void stringField(FieldInfo fieldInfo, String value) {
+            add(fieldInfo, value);
+        }
+
+        @Override
+        public void intField(FieldInfo fieldInfo, int value) {
+            add(fieldInfo, value);
+        }
+
+        @Override
+        public void longField(FieldInfo fieldInfo, long value) {
+            add(fieldInfo, value);
+        }
+
+        @Override
+        public void floatField(FieldInfo fieldInfo, float value) {
+            add(fieldInfo, value);
+        }
+
+        @Override
+        public void doubleField(FieldInfo fieldInfo, double value) {
+            add(fieldInfo, value);
+        }
+    }
+
+    // distinguishes our multi-value holder from a stored value
+    static class MultiValue extends ArrayList<Object> {
+    }
+}
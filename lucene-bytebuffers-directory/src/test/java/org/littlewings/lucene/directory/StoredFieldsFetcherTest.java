@@ -0,0 +1,93 @@
+package org.littlewings.lucene.directory;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StoredFieldsFetcherTest {
+    @Test
+    void fetchRequestedFieldsInHitOrder() throws IOException {
+        try (Directory directory = new ByteBuffersDirectory()) {
+            IndexWriterConfig config = new IndexWriterConfig();
+            config.setMergePolicy(NoMergePolicy.INSTANCE);
+            config.setMaxBufferedDocs(10);  // several segments
+
+            try (IndexWriter writer = new IndexWriter(directory, config)) {
+                for (int i = 0; i < 35; i++) {
+                    Document document = new Document();
+                    document.add(new StringField("id", "id-" + i, Field.Store.YES));
+                    document.add(new TextField("body", "body of document " + i, Field.Store.YES));
+                    document.add(new StoredField("price", i * 100));
+                    document.add(new StoredField("tag", "tag-a"));
+                    document.add(new StoredField("tag", "tag-b"));
+                    writer.addDocument(document);
+                }
+            }
+
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                assertThat(reader.leaves()).hasSizeGreaterThan(1);
+
+                // score order, doc ids spread across segments
+                ScoreDoc[] hits = {
+                        new ScoreDoc(33, 5F),
+                        new ScoreDoc(2, 4F),
+                        new ScoreDoc(21, 3F),
+                        new ScoreDoc(3, 2F),
+                        new ScoreDoc(15, 1F)
+                };
+
+                StoredFieldsFetcher fetcher = new StoredFieldsFetcher("id", "price", "tag");
+                List<StoredFieldsFetcher.FetchedHit> results = fetcher.fetch(reader, hits);
+
+                assertThat(results)
+                        .extracting(StoredFieldsFetcher.FetchedHit::doc)
+                        .containsExactly(33, 2, 21, 3, 15);
+                assertThat(results)
+                        .extracting(hit -> hit.value(fetcher.slot("id")))
+                        .containsExactly("id-33", "id-2", "id-21", "id-3", "id-15");
+                assertThat(results.get(0).value(fetcher.slot("price"))).isEqualTo(3300);
+                assertThat(results.get(0).score()).isEqualTo(5F);
+                assertThat(results.get(1).value(fetcher.slot("tag")))
+                        .asInstanceOf(InstanceOfAssertFactories.LIST)
+                        .containsExactly("tag-a", "tag-b");
+
+                assertThat(results.get(0).values()).hasSize(3);
+
+                // body is not requested, so it never reaches stringField (needsField skips it without decoding)
+                LeafReader leaf = reader.leaves().get(0).reader();
+                List<String> visited = new ArrayList<>();
+                StoredFieldsFetcher.SlotVisitor visitor =
+                        new StoredFieldsFetcher.SlotVisitor(fetcher.slotsByFieldNumber(leaf.getFieldInfos())) {
+                            @Override
+                            public void stringField(FieldInfo fieldInfo, String value) {
+                                visited.add(fieldInfo.name);
+                                super.stringField(fieldInfo, value);
+                            }
+                        };
+                visitor.values = new Object[3];
+                leaf.storedFields().document(0, visitor);
+
+                assertThat(visited).containsExactly("id", "tag", "tag");
+            }
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package org.littlewings.lucene.directory;
+
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FilterDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Directory which writes small, freshly flushed files to a ByteBuffersDirectory (hot tier) and everything else to
+ * the wrapped directory, typically an MMapDirectory (cold tier).
+ * <p>
+ * Hot files move to the cold tier when they are older than maxAge, when the hot tier exceeds maxHotBytes (oldest
+ * first), and when they are synced, as committed files must be durable. Merges estimated above maxSegmentBytes
+ * write to the cold tier directly. Same idea as Lucene's NRTCachingDirectory, with age based migration.
+ */
+public class TieredDirectory extends FilterDirectory {
+    private ByteBuffersDirectory hot = new ByteBuffersDirectory();
+
+    private long maxSegmentBytes;
+    private long maxHotBytes;
+    private long maxAgeNanos;
+
+    // closed hot files -> System.nanoTime() at close
+    private Map<String, Long> hotFiles = new ConcurrentHashMap<>();
+    private Object migrationLock = new Object();
+
+    private AtomicLong migrationCount = new AtomicLong();
+    private AtomicLong migratedBytes = new AtomicLong();
+    private AtomicLong totalMigrationNanos = new AtomicLong();
+    private AtomicLong maxMigrationNanos = new AtomicLong();
+
+    public TieredDirectory(Directory cold, long maxSegmentBytes, long maxHotBytes, Duration maxAge) {
+        super(cold);
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxHotBytes = maxHotBytes;
+        this.maxAgeNanos = maxAge.toNanos();
+    }
+
+    @Override
+    public synchronized String[] listAll() throws IOException {
+        TreeSet<String> files = new TreeSet<>();
+
+        for (String file : hot.listAll()) {
+            files.add(file);
+        }
+        for (String file : in.listAll()) {
+            files.add(file);
+        }
+
+        return files.toArray(String[]::new);
+    }
+
+    @Override
+    public synchronized void deleteFile(String name) throws IOException {
+        if (hotFiles.remove(name) != null || isHot(name)) {
+            hot.deleteFile(name);
+        } else {
+            in.deleteFile(name);
+        }
+    }
+
+    @Override
+    public synchronized long fileLength(String name) throws IOException {
+        if (isHot(name)) {
+            return hot.fileLength(name);
+        }
+
+        return in.fileLength(name);
+    }
+
+    @Override
+    public IndexOutput createOutput(String name, IOContext context) throws IOException {
+        maybeMigrate();
+
+        if (placeInHot(context)) {
+            return new HotIndexOutput(name, hot.createOutput(name, context));
+        }
+
+        return in.createOutput(name, context);
+    }
+
+    boolean placeInHot(IOContext context) {
+        long bytes = switch (context.context) {
+            case MERGE -> context.mergeInfo.estimatedMergeBytes;
+            case FLUSH -> context.flushInfo.estimatedSegmentSize;
+            default -> 0L;
+        };
+
+        return bytes <= maxSegmentBytes && hotBytes() + bytes <= maxHotBytes;
+    }
+
+    @Override
+    public synchronized void rename(String source, String dest) throws IOException {
+        Long closedTime = hotFiles.remove(source);
+
+        if (closedTime != null) {
+            hot.rename(source, dest);
+            hotFiles.put(dest, closedTime);
+        } else {
+            in.rename(source, dest);
+        }
+    }
+
+    @Override
+    public void sync(Collection<String> names) throws IOException {
+        for (String name : names) {
+            migrate(name);
+        }
+
+        in.sync(names);
+    }
+
+    @Override
+    public IndexInput openInput(String name, IOContext context) throws IOException {
+        synchronized (this) {
+            if (isHot(name)) {
+                return hot.openInput(name, context);
+            }
+        }
+
+        return in.openInput(name, context);
+    }
+
+    boolean isHot(String name) {
+        try {
+            hot.fileLength(name);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    long hotBytes() {
+        long bytes = 0L;
+
+        for (String name : hotFiles.keySet()) {
+            try {
+                bytes += hot.fileLength(name);
+            } catch (IOException e) {
+                // migrated or deleted concurrently
+            }
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Moves hot files older than maxAge, then the oldest ones while the hot tier is over maxHotBytes.
+     */
+    public void maybeMigrate() throws IOException {
+        long now = System.nanoTime();
+
+        List<Map.Entry<String, Long>> oldestFirst = new ArrayList<>(hotFiles.entrySet());
+        oldestFirst.sort(Map.Entry.comparingByValue(Comparator.naturalOrder()));
+
+        long bytes = hotBytes();
+
+        for (Map.Entry<String, Long> entry : oldestFirst) {
+            // the rest are younger, so the tier is under both limits
+            if (now - entry.getValue() < maxAgeNanos && bytes <= maxHotBytes) {
+                break;
+            }
+
+            bytes -= migrate(entry.getKey());
+        }
+    }
+
+    /**
+     * Returns the number of bytes moved to the cold tier, 0 if the file is no longer hot.
+     */
+    long migrate(String name) throws IOException {
+        // one migration at a time, openInput / deleteFile only wait for the final swap
+        synchronized (migrationLock) {
+            if (!hotFiles.containsKey(name)) {
+                return 0L;
+            }
+
+            long startTime = System.nanoTime();
+            long length = hot.fileLength(name);
+
+            in.copyFrom(hot, name, name, IOContext.DEFAULT);
+
+            synchronized (this) {
+                if (hotFiles.remove(name) != null) {
+                    hot.deleteFile(name);
+                } else {
+                    // deleted (or renamed) while copying
+                    in.deleteFile(name);
+                    return length;
+                }
+            }
+
+            long elapsed = System.nanoTime() - startTime;
+            migrationCount.incrementAndGet();
+            migratedBytes.addAndGet(length);
+            totalMigrationNanos.addAndGet(elapsed);
+            maxMigrationNanos.accumulateAndGet(elapsed, Math::max);
+
+            return length;
+        }
+    }
+
+    public TierStats getStats() throws IOException {
+        long coldBytes = 0L;
+        int coldFileCount = 0;
+
+        for (String file : in.listAll()) {
+            try {
+                coldBytes += in.fileLength(file);
+                coldFileCount++;
+            } catch (NoSuchFileException e) {
+                // deleted concurrently
+            }
+        }
+
+        return new TierStats(
+                hotFiles.size(),
+                hotBytes(),
+                coldFileCount,
+                coldBytes,
+                migrationCount.get(),
+                migratedBytes.get(),
+                totalMigrationNanos.get(),
+                maxMigrationNanos.get()
+        );
+    }
+
+    @Override
+    public void close() throws IOException {
+        // IndexWriter syncs everything it commits, anything left is uncommitted but keep it like NRTCachingDirectory
+        for (String name : hot.listAll()) {
+            migrate(name);
+        }
+
+        hot.close();
+        in.close();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(cold=" + in + ", maxSegmentBytes=" + maxSegmentBytes + ", maxHotBytes=" + maxHotBytes + ")";
+    }
+
+    public record TierStats(int hotFiles,
+                            long hotBytes,
+                            int coldFiles,
+                            long coldBytes,
+                            long migrationCount,
+                            long migratedBytes,
+                            long totalMigrationNanos,
+                            long maxMigrationNanos) {
+    }
+
+    class HotIndexOutput extends IndexOutput {
+        private String name;
+        private IndexOutput delegate;
+
+        HotIndexOutput(String name, IndexOutput delegate) {
+            super(delegate.toString(), name);
+            this.name = name;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+
+            synchronized (TieredDirectory.this) {
+                if (isHot(name)) {
+                    hotFiles.put(name, System.nanoTime());
+                }
+            }
+        }
+
+        @Override
+        public long getFilePointer() {
+            return delegate.getFilePointer();
+        }
+
+        @Override
+        public long getChecksum() throws IOException {
+            return delegate.getChecksum();
+        }
+
+        @Override
+        public void writeByte(byte b) throws IOException {
+            delegate.writeByte(b);
+        }
+
+        @Override
+        public void writeBytes(byte[] b, int offset, int length) throws IOException {
+            delegate.writeBytes(b, offset, length);
+        }
+    }
+}
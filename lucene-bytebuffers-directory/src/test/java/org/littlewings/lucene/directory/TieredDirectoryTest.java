@@ -0,0 +1,86 @@
+package org.littlewings.lucene.directory;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.MMapDirectory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TieredDirectoryTest {
+    @TempDir
+    Path indexPath;
+
+    Document createDocument(int id) {
+        Document document = new Document();
+        document.add(new StringField("id", Integer.toString(id), Field.Store.YES));
+        return document;
+    }
+
+    @Test
+    void flushedSegmentsStayHotUntilMigrated() throws IOException {
+        try (TieredDirectory directory = new TieredDirectory(new MMapDirectory(indexPath), 1L << 20, 16L << 20, Duration.ofHours(1));
+             IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+            writer.addDocument(createDocument(1));
+
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                TieredDirectory.TierStats stats = directory.getStats();
+                assertThat(stats.hotFiles()).isPositive();
+                assertThat(stats.hotBytes()).isPositive();
+                assertThat(stats.migrationCount()).isZero();
+
+                assertThat(new IndexSearcher(reader).count(new TermQuery(new Term("id", "1")))).isEqualTo(1);
+            }
+
+            // commit syncs, synced files are moved to disk
+            writer.commit();
+
+            TieredDirectory.TierStats stats = directory.getStats();
+            assertThat(stats.hotFiles()).isZero();
+            assertThat(stats.migrationCount()).isPositive();
+            assertThat(stats.migratedBytes()).isPositive();
+            assertThat(stats.coldBytes()).isGreaterThanOrEqualTo(stats.migratedBytes());
+
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                assertThat(new IndexSearcher(reader).count(new TermQuery(new Term("id", "1")))).isEqualTo(1);
+            }
+        }
+    }
+
+    @Test
+    void migrateByAge() throws IOException {
+        try (TieredDirectory directory = new TieredDirectory(new MMapDirectory(indexPath), 1L << 20, 16L << 20, Duration.ZERO);
+             IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+            writer.addDocument(createDocument(1));
+
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                assertThat(directory.getStats().hotFiles()).isPositive();
+
+                directory.maybeMigrate();
+
+                assertThat(directory.getStats().hotFiles()).isZero();
+
+                // the open reader keeps its inputs on the hot buffers, new readers read from disk
+                writer.addDocument(createDocument(2));
+                try (DirectoryReader newReader = DirectoryReader.openIfChanged(reader, writer)) {
+                    assertThat(new IndexSearcher(newReader).count(new TermQuery(new Term("id", "1")))).isEqualTo(1);
+                    assertThat(new IndexSearcher(newReader).count(new TermQuery(new Term("id", "2")))).isEqualTo(1);
+                }
+
+                assertThat(new IndexSearcher(reader).count(new TermQuery(new Term("id", "1")))).isEqualTo(1);
+            }
+        }
+    }
+}
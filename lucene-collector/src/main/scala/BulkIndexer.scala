@@ -0,0 +1,152 @@
+import scala.collection.JavaConverters._
+
+import java.nio.charset.Charset
+import java.nio.file.{Files, Paths}
+import java.util.concurrent.{ArrayBlockingQueue, Callable, ExecutorService, Executors, TimeUnit}
+import java.util.concurrent.atomic.AtomicReference
+
+import org.apache.lucene.analysis.Analyzer
+import org.apache.lucene.document.{Document, Field, NumericDocValuesField, StringField, TextField}
+import org.apache.lucene.index.{ConcurrentMergeScheduler, IndexWriter, IndexWriterConfig}
+import org.apache.lucene.store.Directory
+import org.apache.lucene.util.Version
+
+import org.supercsv.io.CsvListReader
+import org.supercsv.prefs.CsvPreference
+
+import LuceneCollector.AutoCloseableWrapper
+
+/**
+ * CSV parsing on the calling thread -> bounded queue of row batches -> workers building reusable
+ * Documents and adding them with IndexWriter#addDocuments into the shared writer.
+ */
+class BulkIndexer(directory: Directory,
+                  luceneVersion: Version,
+                  analyzer: Analyzer,
+                  source: String,
+                  workers: Int,
+                  batchSize: Int = 1000,
+                  ramBufferSizeMB: Double = 256.0) {
+  private val EndOfInput: Seq[java.util.List[String]] = Seq.empty
+
+  def execute(): Long = {
+    val config =
+      new IndexWriterConfig(luceneVersion, analyzer)
+        .setOpenMode(IndexWriterConfig.OpenMode.CREATE)
+        .setRAMBufferSizeMB(ramBufferSizeMB)
+        .setMaxBufferedDocs(IndexWriterConfig.DISABLE_AUTO_FLUSH)
+        .setMaxThreadStates(workers)
+
+    val mergeScheduler = new ConcurrentMergeScheduler
+    mergeScheduler.setMaxMergesAndThreads(workers + 2, math.max(1, workers / 2))
+    config.setMergeScheduler(mergeScheduler)
+
+    val queue = new ArrayBlockingQueue[Seq[java.util.List[String]]](workers * 2)
+    val failure = new AtomicReference[Throwable]
+    val executor: ExecutorService = Executors.newFixedThreadPool(workers)
+
+    val startTime = System.nanoTime
+    var count = 0L
+
+    // not through AutoCloseableWrapper: IndexWriter#close commits, so a failed run must roll back instead
+    val indexWriter = new IndexWriter(directory, config)
+    try {
+      val futures =
+        (1 to workers).map { _ =>
+          executor.submit(new Callable[Long] {
+            override def call(): Long = index(indexWriter, queue, failure)
+          })
+        }
+
+      try {
+        for {
+          reader <- Files.newBufferedReader(Paths.get(source), Charset.forName("Windows-31J"))
+          csvReader <- new CsvListReader(reader, CsvPreference.STANDARD_PREFERENCE)
+        } {
+          Iterator
+            .continually(csvReader.read())
+            .takeWhile(tokens => tokens != null && failure.get == null)
+            .grouped(batchSize)
+            .foreach { batch =>
+              queue.put(batch)
+
+              count += batch.size
+              if (count % 100000 < batchSize) {
+                printf("%1$,3d件…(%2$,.0f docs/sec)%n", count, docsPerSec(count, startTime))
+              }
+            }
+        }
+      } finally {
+        (1 to workers).foreach(_ => queue.put(EndOfInput))
+        executor.shutdown()
+        // workers record their own failures, so this only waits for in-flight addDocuments
+        futures.foreach(_.get)
+      }
+
+      Option(failure.get).foreach(th => throw th)
+
+      indexWriter.commit()
+      indexWriter.close()
+    } catch {
+      case th: Throwable =>
+        indexWriter.rollback()
+        throw th
+    }
+
+    executor.awaitTermination(1L, TimeUnit.MINUTES)
+
+    printf("%1$,3d件、インデックスに登録しました(%2$,.0f docs/sec)%n", count, docsPerSec(count, startTime))
+
+    count
+  }
+
+  private def index(indexWriter: IndexWriter,
+                    queue: ArrayBlockingQueue[Seq[java.util.List[String]]],
+                    failure: AtomicReference[Throwable]): Long = {
+    // Documents and Fields are reused once addDocuments returns
+    val documents = Array.fill(batchSize)(new ReusableAddressDocument)
+    var indexed = 0L
+
+    Iterator
+      .continually(queue.take())
+      .takeWhile(_ ne EndOfInput)
+      .foreach { batch =>
+        // after a failure keep draining, so the parser never blocks on a full queue
+        if (failure.get == null) {
+          try {
+            val filled = batch.zipWithIndex.map { case (tokens, i) => documents(i).fill(tokens.asScala) }
+            indexWriter.addDocuments(filled.asJava)
+            indexed += batch.size
+          } catch {
+            case th: Throwable => failure.compareAndSet(null, th)
+          }
+        }
+      }
+
+    indexed
+  }
+
+  private def docsPerSec(count: Long, startTime: Long): Double =
+    count / ((System.nanoTime - startTime) / 1000000000.0)
+}
+
+class ReusableAddressDocument {
+  val document = new Document
+
+  private val fields: Seq[(Field, Int)] =
+    Address.FieldSpecs.map {
+      case (name, index, true) => (new StringField(name, "", Field.Store.YES), index)
+      case (name, index, false) => (new TextField(name, "", Field.Store.YES), index)
+    }
+
+  private val addressCdValue = new NumericDocValuesField(Address.AddressCdValue, 0L)
+
+  fields.foreach { case (field, _) => document.add(field) }
+  document.add(addressCdValue)
+
+  def fill(tokens: Seq[String]): Document = {
+    fields.foreach { case (field, index) => field.setStringValue(Option(tokens(index)).getOrElse("")) }
+    addressCdValue.setLongValue(Address.addressCdValue(tokens))
+    document
+  }
+}
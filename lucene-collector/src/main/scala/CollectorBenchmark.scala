@@ -0,0 +1,128 @@
+import java.util.concurrent.TimeUnit
+
+import scala.util.Random
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer
+import org.apache.lucene.document.{Document, Field, NumericDocValuesField, StringField}
+import org.apache.lucene.index.{DirectoryReader, IndexWriter, IndexWriterConfig, Term}
+import org.apache.lucene.search.{IndexSearcher, MatchAllDocsQuery, Query, Sort, SortField, TermQuery, TopDocs}
+import org.apache.lucene.search.{TopFieldCollector, TopScoreDocCollector, TotalHitCountCollector}
+import org.apache.lucene.store.RAMDirectory
+import org.apache.lucene.util.Version
+
+import org.openjdk.jmh.annotations._
+
+/**
+ * sbt "jmh:run -i 5 -wi 3 -f 1 CollectorBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+class CollectorBenchmark {
+  @Param(Array("matchAll", "term"))
+  var queryType: String = _
+
+  // mixed: 先頭の1割のdocはaddressCdValueを持たない、別のセグメントにする
+  @Param(Array("uniform", "mixed"))
+  var segments: String = _
+
+  @Param(Array("true", "false"))
+  var reverse: Boolean = _
+
+  var directory: RAMDirectory = _
+  var reader: DirectoryReader = _
+  var searcher: IndexSearcher = _
+  var query: Query = _
+
+  val numDocs: Int = 1000000
+  val k: Int = 20
+
+  @Setup
+  def setUp(): Unit = {
+    val random = new Random(42L)
+    directory = new RAMDirectory
+
+    val writer = new IndexWriter(directory, new IndexWriterConfig(Version.LUCENE_43, new KeywordAnalyzer))
+    (1 to numDocs).foreach { i =>
+      val document = new Document
+      document.add(new StringField("prefecture", s"pref-${random.nextInt(47)}", Field.Store.NO))
+      if (segments == "uniform" || i > numDocs / 10) {
+        document.add(new NumericDocValuesField(Address.AddressCdValue, random.nextInt(100000000).toLong))
+      }
+      writer.addDocument(document)
+
+      if (segments == "mixed" && i == numDocs / 10) {
+        writer.commit()
+      }
+    }
+    writer.close()
+
+    reader = DirectoryReader.open(directory)
+    searcher = new IndexSearcher(reader)
+
+    query = queryType match {
+      case "matchAll" => new MatchAllDocsQuery
+      case "term" => new TermQuery(new Term("prefecture", "pref-13"))
+    }
+
+    val expected = topFieldCollector.scoreDocs.map(_.doc).toSeq
+    val actual = numericTopKCollector.map(_._1)
+    if (actual != expected) {
+      throw new IllegalStateException(s"NumericTopKCollector returned $actual, but TopFieldCollector returned $expected")
+    }
+  }
+
+  @TearDown
+  def tearDown(): Unit = {
+    reader.close()
+    directory.close()
+  }
+
+  @Benchmark
+  def totalHitCountCollector: Int = {
+    val collector = new TotalHitCountCollector
+    searcher.search(query, collector)
+    collector.getTotalHits
+  }
+
+  @Benchmark
+  def countOnlyCollector: Int = {
+    val collector = new CountOnlyCollector(query)
+    searcher.search(query, collector)
+    collector.getTotalHits
+  }
+
+  @Benchmark
+  def topScoreDocCollector: AnyRef = {
+    val collector = TopScoreDocCollector.create(k, true)
+    searcher.search(query, collector)
+    collector.topDocs
+  }
+
+  @Benchmark
+  def firstNCollector: AnyRef = {
+    val collector = new FirstNCollector(k)
+    searcher.search(query, collector)
+    collector.getDocs
+  }
+
+  @Benchmark
+  def topFieldCollector: TopDocs = {
+    val collector =
+      TopFieldCollector.create(new Sort(new SortField(Address.AddressCdValue, SortField.Type.LONG, reverse)),
+                               k,
+                               true,  // fillFields
+                               false,  // trackDocScores
+                               false,  // trackMaxScore
+                               false)  // docScoredInOrder
+    searcher.search(query, collector)
+    collector.topDocs
+  }
+
+  @Benchmark
+  def numericTopKCollector: Seq[(Int, Long)] = {
+    val collector = new NumericTopKCollector(Address.AddressCdValue, k, reverse)
+    searcher.search(query, collector)
+    collector.topDocs
+  }
+}
@@ -0,0 +1,161 @@
+import org.apache.lucene.index.{AtomicReader, AtomicReaderContext, NumericDocValues}
+import org.apache.lucene.search.{CollectionTerminatedException, Collector, MatchAllDocsQuery, Query, Scorer, TermQuery}
+
+/**
+ * 件数だけを数えるCollector。
+ * MatchAllDocsQueryと、削除のないセグメントでのTermQueryは、docを回さずにnumDocs / docFreqから件数を求め、
+ * そのセグメントの収集を打ち切る(後のLuceneのWeight#countに相当)
+ */
+class CountOnlyCollector(query: Query) extends Collector {
+  private var totalHits: Int = 0
+  private var shortCircuitedLeaves: Int = 0
+
+  def getTotalHits: Int = totalHits
+
+  def getShortCircuitedLeaves: Int = shortCircuitedLeaves
+
+  override def setNextReader(context: AtomicReaderContext): Unit =
+    leafCount(context.reader).foreach { count =>
+      totalHits += count
+      shortCircuitedLeaves += 1
+      throw new CollectionTerminatedException
+    }
+
+  private def leafCount(reader: AtomicReader): Option[Int] =
+    query match {
+      case _: MatchAllDocsQuery => Some(reader.numDocs)
+      case termQuery: TermQuery if !reader.hasDeletions => Some(reader.docFreq(termQuery.getTerm))
+      case _ => None
+    }
+
+  override def setScorer(scorer: Scorer): Unit = ()
+
+  override def collect(doc: Int): Unit = totalHits += 1
+
+  override def acceptsDocsOutOfOrder: Boolean = true
+}
+
+/**
+ * NumericDocValuesの値で上位k件を求めるCollector。
+ * ヒープはlong/intの配列で持ち、ヒープの底より競争力のないdocは値を読んだだけで捨てる(collect中はアロケーションなし)。
+ * 値のないdocは0として並べる
+ */
+class NumericTopKCollector(field: String, k: Int, reverse: Boolean) extends Collector {
+  require(k > 0, s"k must be positive, but $k")
+
+  // reverse = true: 大きい順。keyが小さいものほど先に落とすので、昇順の時はビット反転して順序を逆にする
+  private val heapKeys: Array[Long] = new Array[Long](k)
+  private val heapDocs: Array[Int] = new Array[Int](k)
+  private var size: Int = 0
+
+  private var docBase: Int = 0
+  private var values: NumericDocValues = _
+
+  override def setNextReader(context: AtomicReaderContext): Unit = {
+    docBase = context.docBase
+    // フィールドがないセグメントは、TopFieldCollector(FieldCache)と同じく値を0として扱う
+    values = Option(context.reader.getNumericDocValues(field)).getOrElse(NumericDocValues.EMPTY)
+  }
+
+  override def setScorer(scorer: Scorer): Unit = ()
+
+  override def collect(doc: Int): Unit = {
+    val value = values.get(doc)
+    val key = if (reverse) value else ~value
+
+    if (size < k) {
+      heapKeys(size) = key
+      heapDocs(size) = docBase + doc
+      size += 1
+      upHeap(size - 1)
+    } else if (key > heapKeys(0)) {
+      // docは昇順で来るので、同じ値なら先に来たdocを残す
+      heapKeys(0) = key
+      heapDocs(0) = docBase + doc
+      downHeap(0)
+    }
+  }
+
+  private def lessThan(i: Int, j: Int): Boolean =
+    heapKeys(i) < heapKeys(j) || (heapKeys(i) == heapKeys(j) && heapDocs(i) > heapDocs(j))
+
+  private def swap(i: Int, j: Int): Unit = {
+    val key = heapKeys(i)
+    heapKeys(i) = heapKeys(j)
+    heapKeys(j) = key
+
+    val doc = heapDocs(i)
+    heapDocs(i) = heapDocs(j)
+    heapDocs(j) = doc
+  }
+
+  private def upHeap(start: Int): Unit = {
+    var i = start
+    while (i > 0 && lessThan(i, (i - 1) / 2)) {
+      swap(i, (i - 1) / 2)
+      i = (i - 1) / 2
+    }
+  }
+
+  private def downHeap(start: Int): Unit = {
+    var i = start
+    var done = false
+
+    while (!done) {
+      val left = i * 2 + 1
+      val right = left + 1
+      var smallest = i
+
+      if (left < size && lessThan(left, smallest)) smallest = left
+      if (right < size && lessThan(right, smallest)) smallest = right
+
+      if (smallest == i) {
+        done = true
+      } else {
+        swap(i, smallest)
+        i = smallest
+      }
+    }
+  }
+
+  /** (doc, 値)を、ソート順で返す */
+  def topDocs: Seq[(Int, Long)] =
+    (0 until size)
+      .map(i => (heapDocs(i), heapKeys(i)))
+      .sortWith { case ((doc1, key1), (doc2, key2)) => key1 > key2 || (key1 == key2 && doc1 < doc2) }
+      .map { case (doc, key) => (doc, if (reverse) key else ~key) }
+
+  override def acceptsDocsOutOfOrder: Boolean = false
+}
+
+/**
+ * 最初にマッチしたn件だけを集めるCollector。n件に達したら、以降のセグメントも含めて収集を打ち切る
+ */
+class FirstNCollector(n: Int) extends Collector {
+  private val docs: Array[Int] = new Array[Int](n)
+  private var count: Int = 0
+  private var docBase: Int = 0
+
+  override def setNextReader(context: AtomicReaderContext): Unit = {
+    if (count >= n) {
+      throw new CollectionTerminatedException
+    }
+
+    docBase = context.docBase
+  }
+
+  override def setScorer(scorer: Scorer): Unit = ()
+
+  override def collect(doc: Int): Unit = {
+    docs(count) = docBase + doc
+    count += 1
+
+    if (count >= n) {
+      throw new CollectionTerminatedException
+    }
+  }
+
+  def getDocs: Array[Int] = java.util.Arrays.copyOf(docs, count)
+
+  override def acceptsDocsOutOfOrder: Boolean = true
+}
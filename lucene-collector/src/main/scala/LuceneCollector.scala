@@ -6,7 +6,7 @@ import java.nio.file.{Files, Paths}
 
 import org.apache.lucene.analysis.Analyzer
 import org.apache.lucene.analysis.ja.JapaneseAnalyzer
-import org.apache.lucene.document.{Document, Field, StringField, TextField}
+import org.apache.lucene.document.{Document, Field, NumericDocValuesField, StringField, TextField}
 import org.apache.lucene.index.{DirectoryReader, IndexWriter, IndexWriterConfig}
 import org.apache.lucene.queryparser.classic.QueryParser
 import org.apache.lucene.search.{IndexSearcher, Query, Sort, SortField, TopDocs}
@@ -24,10 +24,11 @@ object LuceneCollector {
     val directory = new RAMDirectory
     val luceneVersion = Version.LUCENE_43
     
-    val indexer = new Indexer(directory,
-                              luceneVersion,
-                              new JapaneseAnalyzer(luceneVersion),
-                              "zenkoku.csv")
+    val indexer = new BulkIndexer(directory,
+                                  luceneVersion,
+                                  new JapaneseAnalyzer(luceneVersion),
+                                  "zenkoku.csv",
+                                  Runtime.getRuntime.availableProcessors)
     indexer.execute()
 
     InteractiveQuery.queryWhile(directory, luceneVersion, new JapaneseAnalyzer(luceneVersion))
@@ -73,19 +74,36 @@ class Indexer(directory: Directory, luceneVersion: Version, analyzer: Analyzer,
   }
 }
 
+object Address {
+  // Collectorでのソート用
+  val AddressCdValue: String = "addressCdValue"
+
+  def addressCdValue(tokens: Seq[String]): Long =
+    Try(tokens(0).toLong).getOrElse(0L)
+
+  // (field name, CSV column, StringField or TextField)
+  val FieldSpecs: Seq[(String, Int, Boolean)] = Seq(
+    ("addressCd", 0, true),
+    ("zipNo", 4, true),
+    ("prefecture", 7, false),
+    ("prefectureKana", 8, false),
+    ("city", 9, false),
+    ("cityKana", 10, false),
+    ("town", 11, false),
+    ("townKana", 12, false),
+    ("azachome", 15, false),
+    ("azachomeKana", 16, false)
+  )
+}
+
 case class Address(tokens: Seq[String]) {
   def toDocument: Document = {
     val doc = new Document
-    doc.add(stringField("addressCd", 0))
-    doc.add(stringField("zipNo", 4))
-    doc.add(textField("prefecture", 7))
-    doc.add(textField("prefectureKana", 8))
-    doc.add(textField("city", 9))
-    doc.add(textField("cityKana", 10))
-    doc.add(textField("town", 11))
-    doc.add(textField("townKana", 12))
-    doc.add(textField("azachome", 15))
-    doc.add(textField("azachomeKana", 16))
+    Address.FieldSpecs.foreach {
+      case (name, index, true) => doc.add(stringField(name, index))
+      case (name, index, false) => doc.add(textField(name, index))
+    }
+    doc.add(new NumericDocValuesField(Address.AddressCdValue, Address.addressCdValue(tokens)))
     doc
   }
   private def stringField(name: String, index: Int): Field =
@@ -136,7 +154,8 @@ object InteractiveQuery {
             println(s"入力したクエリ => $q")
 
             // ヒット件数の取得
-            val totalHitCountCollector = new TotalHitCountCollector
+            // val totalHitCountCollector = new TotalHitCountCollector
+            val totalHitCountCollector = new CountOnlyCollector(q)
 
             searcher.search(q, totalHitCountCollector)
 
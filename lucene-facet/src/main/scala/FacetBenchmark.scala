@@ -0,0 +1,143 @@
+import scala.collection.JavaConverters._
+import scala.util.Random
+
+import java.util.concurrent.{ExecutorService, Executors, TimeUnit}
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer
+import org.apache.lucene.document.{Document, Field, StringField}
+import org.apache.lucene.index.{DirectoryReader, IndexWriter, IndexWriterConfig, NoMergePolicy, Term}
+import org.apache.lucene.search.{IndexSearcher, MatchAllDocsQuery, Query, QueryWrapperFilter, TermQuery}
+import org.apache.lucene.store.RAMDirectory
+import org.apache.lucene.util.Version
+
+import org.apache.lucene.facet.index.FacetFields
+import org.apache.lucene.facet.params.FacetSearchParams
+import org.apache.lucene.facet.search.{CountFacetRequest, FacetRequest, FacetResult, FacetsAccumulator, FacetsCollector}
+import org.apache.lucene.facet.taxonomy.CategoryPath
+import org.apache.lucene.facet.taxonomy.directory.{DirectoryTaxonomyReader, DirectoryTaxonomyWriter}
+
+import org.openjdk.jmh.annotations._
+
+/**
+ * sbt "jmh:run -i 5 -wi 3 -f 1 FacetBenchmark"
+ *
+ * publishTime/price/language/authorの4つの次元の上位10件を、タクソノミーで数える場合と、
+ * SortedSetFacetCounterで数える場合(逐次、並列、セグメントごとのキャッシュあり)を比較する
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+class FacetBenchmark {
+  @Param(Array("100000", "1000000"))
+  var numDocs: Int = _
+
+  @Param(Array("matchAll", "term"))
+  var queryType: String = _
+
+  val numSegments: Int = 8
+  val numThreads: Int = 4
+  val dimensions: Seq[String] = Seq("publishTime", "price", "language", "author")
+
+  var indexDirectory: RAMDirectory = _
+  var taxonomyDirectory: RAMDirectory = _
+  var reader: DirectoryReader = _
+  var taxonomyReader: DirectoryTaxonomyReader = _
+  var searcher: IndexSearcher = _
+  var executor: ExecutorService = _
+
+  var query: Query = _
+
+  var sequentialCounter: SortedSetFacetCounter = _
+  var parallelCounter: SortedSetFacetCounter = _
+
+  @Setup
+  def setUp(): Unit = {
+    val random = new Random(42L)
+    indexDirectory = new RAMDirectory
+    taxonomyDirectory = new RAMDirectory
+
+    // セグメントごとの並列化が効くように、マージせずにnumSegments個のセグメントにする
+    val config =
+      new IndexWriterConfig(Version.LUCENE_44, new KeywordAnalyzer)
+        .setMaxBufferedDocs(numDocs / numSegments)
+        .setRAMBufferSizeMB(IndexWriterConfig.DISABLE_AUTO_FLUSH)
+        .setMergePolicy(NoMergePolicy.NO_COMPOUND_FILES)
+    val writer = new IndexWriter(indexDirectory, config)
+    val taxonomyWriter = new DirectoryTaxonomyWriter(taxonomyDirectory)
+    val facetFields = new FacetFields(taxonomyWriter)
+
+    val languages = Array("java", "scala", "groovy", "clojure", "kotlin", "ruby", "python", "perl", "php", "javascript")
+
+    (1 to numDocs).foreach { _ =>
+      val language = languages(random.nextInt(languages.length))
+      val authors = Seq.fill(1 + random.nextInt(3))(s"author-${random.nextInt(1000)}").distinct
+
+      val categoryPaths = List(
+        new CategoryPath("publishTime", (2000 + random.nextInt(14)).toString, f"${1 + random.nextInt(12)}%02d"),
+        new CategoryPath("price", (1000 + random.nextInt(200) * 10).toString),
+        new CategoryPath("language", language)
+      ) ::: authors.map(n => new CategoryPath("author", n)).toList
+
+      val document = new Document
+      document.add(new StringField("language", language, Field.Store.NO))
+      facetFields.addFields(document, categoryPaths.asJava)
+      SortedSetFacets.addFields(document, categoryPaths.map(_.components.toSeq))
+      writer.addDocument(document)
+    }
+
+    writer.close()
+    taxonomyWriter.close()
+
+    reader = DirectoryReader.open(indexDirectory)
+    taxonomyReader = new DirectoryTaxonomyReader(taxonomyDirectory)
+    searcher = new IndexSearcher(reader)
+    executor = Executors.newFixedThreadPool(numThreads)
+
+    sequentialCounter = new SortedSetFacetCounter(reader, null)
+    parallelCounter = new SortedSetFacetCounter(reader, executor)
+
+    query = queryType match {
+      case "matchAll" => new MatchAllDocsQuery
+      case "term" => new TermQuery(new Term("language", "java"))
+    }
+  }
+
+  @TearDown
+  def tearDown(): Unit = {
+    executor.shutdown()
+    reader.close()
+    taxonomyReader.close()
+    indexDirectory.close()
+    taxonomyDirectory.close()
+  }
+
+  @Benchmark
+  def taxonomy: java.util.List[FacetResult] = {
+    val facetSearchParams =
+      new FacetSearchParams(dimensions.map(d => new CountFacetRequest(new CategoryPath(d), 10): FacetRequest).asJava)
+    val facetsCollector = FacetsCollector.create(new FacetsAccumulator(facetSearchParams, reader, taxonomyReader))
+    searcher.search(query, facetsCollector)
+    facetsCollector.getFacetResults
+  }
+
+  @Benchmark
+  def sortedSetSequential: Seq[Seq[LabelAndValue]] = {
+    val counts = sequentialCounter.count(query)
+    dimensions.map(d => counts.getTopChildren(10, d))
+  }
+
+  @Benchmark
+  def sortedSetParallel: Seq[Seq[LabelAndValue]] = {
+    val counts = parallelCounter.count(query)
+    dimensions.map(d => counts.getTopChildren(10, d))
+  }
+
+  @Benchmark
+  def sortedSetCached: Seq[Seq[LabelAndValue]] = {
+    val counts = queryType match {
+      case "matchAll" => parallelCounter.countAll()
+      case "term" => parallelCounter.count(new QueryWrapperFilter(query))
+    }
+    dimensions.map(d => counts.getTopChildren(10, d))
+  }
+}
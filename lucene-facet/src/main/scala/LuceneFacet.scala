@@ -1,10 +1,12 @@
 import scala.collection.JavaConverters._
 
+import java.util.concurrent.Executors
+
 import org.apache.lucene.analysis.Analyzer
 import org.apache.lucene.analysis.ja.JapaneseAnalyzer
 import org.apache.lucene.document.{Document, Field, StringField, TextField}
 import org.apache.lucene.index.{DirectoryReader, IndexWriter, IndexWriterConfig, Term}
-import org.apache.lucene.search.{IndexSearcher, MatchAllDocsQuery, MultiCollector, Query, TermQuery, TopScoreDocCollector}
+import org.apache.lucene.search.{IndexSearcher, MatchAllDocsQuery, MultiCollector, Query, QueryWrapperFilter, TermQuery, TopScoreDocCollector}
 import org.apache.lucene.store.{Directory, RAMDirectory}
 import org.apache.lucene.util.Version
 
@@ -26,6 +28,8 @@ object LuceneFacet {
 
     facetQuery(indexDirectory, taxonomyDirectory, luceneVersion)
 
+    sortedSetFacetQuery(indexDirectory)
+
     indexDirectory.close()
     taxonomyDirectory.close()
   }
@@ -137,6 +141,9 @@ object LuceneFacet {
  
     facetFields.addFields(document, categoryPaths.asJava)
 
+    // タクソノミーを使わない、SortedSetDocValuesでのファセット
+    SortedSetFacets.addFields(document, categoryPaths.map(_.components.toSeq))
+
     document
   }
 
@@ -194,6 +201,43 @@ object LuceneFacet {
     reader.close()
     taxonomyReader.close()
   }
+
+  private def sortedSetFacetQuery(indexDirectory: Directory): Unit = {
+    val reader = DirectoryReader.open(indexDirectory)
+    val executor = Executors.newFixedThreadPool(2)
+
+    val counter = new SortedSetFacetCounter(reader, executor)
+
+    def printFacet(caseName: String)(results: Seq[LabelAndValue]): Unit = {
+      println(s"SortedSet Case[$caseName]")
+      results.foreach(r => println(s"   label: ${r.label}, value: ${r.value}"))
+    }
+
+    printFacet("Query => allDocs, Facet => publishTime") {
+      counter.countAll().getTopChildren(10, "publishTime")
+    }
+    printFacet("Query => allDocs, Facet => publishTime, num 1") {
+      counter.countAll().getTopChildren(1, "publishTime")
+    }
+    printFacet("Query => language:java, Facet => publishTime/2008") {
+      counter.count(new QueryWrapperFilter(new TermQuery(new Term("language", "java")))).getTopChildren(10, "publishTime", "2008")
+    }
+    printFacet("Query => language:scala, Facet => publishTime") {
+      counter.count(new TermQuery(new Term("language", "scala"))).getTopChildren(10, "publishTime")
+    }
+    printFacet("Query => allDocs, Facet => language") {
+      counter.countAll().getTopChildren(10, "language")
+    }
+    printFacet("Query => language:scala, Facet => publishTime/2011") {
+      counter.count(new TermQuery(new Term("language", "scala"))).getTopChildren(10, "publishTime", "2011")
+    }
+    printFacet("Query => allDocs, Facet => author") {
+      counter.countAll().getTopChildren(20, "author")
+    }
+
+    executor.shutdown()
+    reader.close()
+  }
 }
 
 case class Book(title: String,
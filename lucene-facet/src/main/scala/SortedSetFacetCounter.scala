@@ -0,0 +1,246 @@
+import scala.collection.JavaConverters._
+import scala.collection.mutable
+
+import java.util.concurrent.{Callable, ExecutorService}
+import java.util.concurrent.atomic.AtomicLong
+
+import org.apache.lucene.document.{Document, SortedSetDocValuesField}
+import org.apache.lucene.index.{AtomicReaderContext, DirectoryReader, MultiDocValues, SortedSetDocValues}
+import org.apache.lucene.search.{DocIdSetIterator, Filter, IndexSearcher, Query}
+import org.apache.lucene.util.{BytesRef, StringHelper}
+
+object SortedSetFacets {
+  val DefaultField: String = "$sorted_set_facets"
+
+  // SortedSetDocValuesFacetFieldsと同じく、次元とラベルを\u001Fで区切って1つの値にする
+  val Delimiter: Char = '\u001F'
+
+  /**
+   * SortedSetDocValuesFacetFieldsと違い、「publishTime/2008/11」のような3階層以上のパスも登録できる
+   */
+  def addFields(document: Document, paths: Seq[Seq[String]], field: String = DefaultField): Unit =
+    paths.map(_.mkString(Delimiter.toString)).distinct.foreach { path =>
+      document.add(new SortedSetDocValuesField(field, new BytesRef(path)))
+    }
+}
+
+case class LabelAndValue(label: String, value: Int)
+
+/**
+ * セグメントごとのカウントのキャッシュ。
+ * キーはセグメントのコアと削除の組み合わせなので、削除が変わったセグメントは数え直し、閉じられたセグメントのエントリはGCで消える。
+ * 1つのセグメントに保持するFilterのカウントはmaxFiltersPerSegment件までで、超えた場合は最も長く使われていないものから捨てる。
+ * セグメント内のキーは呼び出し側が決めるので、ファセットのフィールドが異なるカウンターで共有する場合はフィールドもキーに含めること
+ */
+class SegmentCountsCache(maxFiltersPerSegment: Int = 16) {
+  require(maxFiltersPerSegment > 0, "maxFiltersPerSegment must be > 0")
+
+  private val cache = new java.util.WeakHashMap[AnyRef, java.util.LinkedHashMap[AnyRef, Array[Int]]]
+
+  private val hits: AtomicLong = new AtomicLong
+  private val misses: AtomicLong = new AtomicLong
+  private val evictions: AtomicLong = new AtomicLong
+
+  def getOrCount(context: AtomicReaderContext, key: AnyRef)(count: => Array[Int]): Array[Int] = {
+    val segmentKey = context.reader.getCombinedCoreAndDeletesKey
+    val cached = cache.synchronized(Option(cache.get(segmentKey)).flatMap(m => Option(m.get(key))))
+
+    cached match {
+      case Some(counts) =>
+        hits.incrementAndGet()
+        counts
+      case None =>
+        misses.incrementAndGet()
+        val counts = count
+        cache.synchronized {
+          val segmentCache = Option(cache.get(segmentKey)).getOrElse {
+            val m = newSegmentCache
+            cache.put(segmentKey, m)
+            m
+          }
+          segmentCache.put(key, counts)
+        }
+        counts
+    }
+  }
+
+  private def newSegmentCache: java.util.LinkedHashMap[AnyRef, Array[Int]] =
+    new java.util.LinkedHashMap[AnyRef, Array[Int]](16, 0.75F, true) {
+      override def removeEldestEntry(eldest: java.util.Map.Entry[AnyRef, Array[Int]]): Boolean =
+        if (size > maxFiltersPerSegment) {
+          evictions.incrementAndGet()
+          true
+        } else {
+          false
+        }
+    }
+
+  def hitCount: Long = hits.get
+
+  def missCount: Long = misses.get
+
+  def evictionCount: Long = evictions.get
+}
+
+/**
+ * SortedSetDocValuesの順序(ordinal)でファセットを数える。タクソノミーのインデックスは使わない。
+ *
+ * セグメントごとに、セグメント内の順序をint配列で数えるタスクをexecutorで並列に実行し、
+ * OrdinalMapでグローバルな順序に変換しながら1つのint配列にまとめる。
+ * executorがnullの場合は、呼び出したスレッドで順に数える。
+ * 全件(countAll)とFilterのみ(count(filter))のセグメントごとのカウントはcacheに保持するので、
+ * NRTで開き直したDirectoryReaderでも、変わっていないセグメントは数え直さない。
+ * キャッシュのキーは(field, Filter)なので、異なるフィールドのカウンターでcacheを共有してもよい。
+ * Filterはequals/hashCodeでキャッシュのキーになるので、同じ条件のFilterは使い回すか、equalsを実装したものを渡すこと
+ */
+class SortedSetFacetCounter(reader: DirectoryReader,
+                            executor: ExecutorService,
+                            cache: SegmentCountsCache = new SegmentCountsCache,
+                            field: String = SortedSetFacets.DefaultField) {
+  private val MatchAll: AnyRef = "*:*"
+
+  private val leaves: IndexedSeq[AtomicReaderContext] = reader.leaves.asScala.toIndexedSeq
+
+  private val searcher: IndexSearcher = new IndexSearcher(reader)
+
+  private val ordinalMap: MultiDocValues.OrdinalMap =
+    new MultiDocValues.OrdinalMap(reader.getCoreCacheKey, leaves.map(c => docValues(c).termsEnum).toArray)
+
+  def countAll(): FacetCounts =
+    merge(parallel(context => cache.getOrCount(context, (field, MatchAll))(countAllDocs(context))))
+
+  def count(filter: Filter): FacetCounts =
+    merge(parallel { context =>
+      cache.getOrCount(context, (field, filter)) {
+        val docIdSet = filter.getDocIdSet(context, context.reader.getLiveDocs)
+        countDocs(context, if (docIdSet == null) null else docIdSet.iterator)
+      }
+    })
+
+  def count(query: Query): FacetCounts = {
+    val weight = searcher.createNormalizedWeight(query)
+    merge(parallel { context =>
+      countDocs(context,
+                weight.scorer(context,
+                              true,  // scoreDocsInOrder
+                              false,  // topScorer
+                              context.reader.getLiveDocs))
+    })
+  }
+
+  // SortedSetDocValuesはスレッドごとのインスタンスなので、使うスレッドで取得する
+  private def docValues(context: AtomicReaderContext): SortedSetDocValues =
+    Option(context.reader.getSortedSetDocValues(field)).getOrElse(SortedSetDocValues.EMPTY)
+
+  private def parallel(count: AtomicReaderContext => Array[Int]): IndexedSeq[Array[Int]] =
+    if (executor == null) {
+      leaves.map(count)
+    } else {
+      leaves
+        .map(context => executor.submit(new Callable[Array[Int]] {
+          override def call(): Array[Int] = count(context)
+        }))
+        .map(_.get)
+    }
+
+  private def countAllDocs(context: AtomicReaderContext): Array[Int] = {
+    val values = docValues(context)
+    val counts = new Array[Int](values.getValueCount.toInt)
+    val liveDocs = context.reader.getLiveDocs
+
+    var doc = 0
+    val maxDoc = context.reader.maxDoc
+    while (doc < maxDoc) {
+      if (liveDocs == null || liveDocs.get(doc)) countDoc(values, counts, doc)
+      doc += 1
+    }
+
+    counts
+  }
+
+  private def countDocs(context: AtomicReaderContext, docs: DocIdSetIterator): Array[Int] = {
+    val values = docValues(context)
+    val counts = new Array[Int](values.getValueCount.toInt)
+
+    if (docs != null) {
+      var doc = docs.nextDoc
+      while (doc != DocIdSetIterator.NO_MORE_DOCS) {
+        countDoc(values, counts, doc)
+        doc = docs.nextDoc
+      }
+    }
+
+    counts
+  }
+
+  private def countDoc(values: SortedSetDocValues, counts: Array[Int], doc: Int): Unit = {
+    values.setDocument(doc)
+    var ord = values.nextOrd
+    while (ord != SortedSetDocValues.NO_MORE_ORDS) {
+      counts(ord.toInt) += 1
+      ord = values.nextOrd
+    }
+  }
+
+  private def merge(segmentCounts: IndexedSeq[Array[Int]]): FacetCounts = {
+    val counts = new Array[Int](ordinalMap.getValueCount.toInt)
+
+    var segment = 0
+    while (segment < segmentCounts.size) {
+      val segmentCount = segmentCounts(segment)
+      var ord = 0
+      while (ord < segmentCount.length) {
+        if (segmentCount(ord) != 0) {
+          counts(ordinalMap.getGlobalOrd(segment, ord).toInt) += segmentCount(ord)
+        }
+        ord += 1
+      }
+      segment += 1
+    }
+
+    new FacetCounts(counts)
+  }
+
+  private def lookupGlobalOrd(globalOrd: Long, result: BytesRef): BytesRef = {
+    val segment = ordinalMap.getFirstSegmentNumber(globalOrd)
+    docValues(leaves(segment)).lookupOrd(ordinalMap.getFirstSegmentOrd(globalOrd), result)
+    result
+  }
+
+  class FacetCounts(counts: Array[Int]) {
+    /**
+     * dim/path...の子のラベルごとの件数を、多い順にtopN件返す。
+     * 子の件数は孫以下の件数の合計なので、1つのドキュメントが同じ親の下に複数のパスを持つ場合は重複して数える
+     */
+    def getTopChildren(topN: Int, dim: String, path: String*): Seq[LabelAndValue] = {
+      val prefix = (dim +: path).mkString(SortedSetFacets.Delimiter.toString) + SortedSetFacets.Delimiter
+      val prefixBytes = new BytesRef(prefix)
+      val scratch = new BytesRef
+
+      // 値はバイト順に並んでいるので、prefixで始まる値の順序は連続している
+      var low = 0L
+      var high = counts.length.toLong
+      while (low < high) {
+        val mid = (low + high) >>> 1
+        if (lookupGlobalOrd(mid, scratch).compareTo(prefixBytes) < 0) low = mid + 1
+        else high = mid
+      }
+
+      val children = mutable.LinkedHashMap.empty[String, Int].withDefaultValue(0)
+      var ord = low
+      while (ord < counts.length && StringHelper.startsWith(lookupGlobalOrd(ord, scratch), prefixBytes)) {
+        if (counts(ord.toInt) != 0) {
+          val child = scratch.utf8ToString.substring(prefix.length).takeWhile(_ != SortedSetFacets.Delimiter)
+          children(child) += counts(ord.toInt)
+        }
+        ord += 1
+      }
+
+      children
+        .toVector
+        .sortBy { case (label, value) => (-value, label) }
+        .take(topN)
+        .map { case (label, value) => LabelAndValue(label, value) }
+    }
+  }
+}
@@ -6,7 +6,7 @@ import java.io.StringReader
 
 import org.apache.lucene.analysis.Analyzer
 import org.apache.lucene.analysis.ja.JapaneseAnalyzer
-import org.apache.lucene.document.{Document, Field, TextField}
+import org.apache.lucene.document.{Document, Field, FieldType, TextField}
 import org.apache.lucene.index.{DirectoryReader, IndexReader, IndexWriter, IndexWriterConfig, Term}
 import org.apache.lucene.queries.mlt.{MoreLikeThis, MoreLikeThisQuery}
 import org.apache.lucene.search.{BooleanQuery, FuzzyQuery, IndexSearcher, MatchAllDocsQuery, Query, Sort, TermQuery}
@@ -45,6 +45,13 @@ object LuceneFuzzyMoreLikeThis {
                           analyzer,
                           3,
                           6)
+
+      termVectorMoreLikeThisQueries(directory,
+                                    analyzer,
+                                    3,
+                                    6,
+                                    3,
+                                    6)
     }
   }
 
@@ -63,8 +70,12 @@ object LuceneFuzzyMoreLikeThis {
                     "ｱｲｳｴｵカキクケコさしすせそABCＸＹＺ123４５６",
                     "Lucene is a full-featured text search engine library written in Java.")
     } {
+      // TermVectorMoreLikeThisが再解析せずに済むように、タームベクトルを保存する
+      val textFieldType = new FieldType(TextField.TYPE_STORED)
+      textFieldType.setStoreTermVectors(true)
+
       val document = new Document
-      document.add(new TextField("text", text, Field.Store.YES))
+      document.add(new Field("text", text, textFieldType))
       writer.addDocument(document)
     }
 
@@ -146,6 +157,32 @@ object LuceneFuzzyMoreLikeThis {
     println("==================== MoreLikeThisQuery End ====================")
   }
 
+  private def termVectorMoreLikeThisQueries(directory: Directory,
+                                            analyzer: Analyzer,
+                                            docIds: Int*): Unit = {
+    println("==================== TermVector MoreLikeThisQuery Start ====================")
+
+    for (reader <- DirectoryReader.open(directory)) {
+      val mlt = new TermVectorMoreLikeThis(reader,
+                                           analyzer,
+                                           Array("text"),
+                                           minTermFreq = 0,
+                                           minDocFreq = 0,
+                                           maxPostingsCost = 10)
+
+      docIds.foreach { docId =>
+        // 2回目以降の同じドキュメントは、キャッシュしたクエリを使う
+        val query = mlt.like(docId)
+
+        searchAndExplain(reader, query)
+      }
+
+      println(s"Cache Stats => ${mlt.stats}")
+    }
+
+    println("==================== TermVector MoreLikeThisQuery End ====================")
+  }
+
   private def searchAndExplain(reader: IndexReader,
                                query: Query): Unit = {
     val searcher = new IndexSearcher(reader)
@@ -0,0 +1,152 @@
+package org.littlewings.lucene.fuzzymorelikethis
+
+import scala.collection.mutable
+
+import java.util.concurrent.atomic.AtomicLong
+
+import org.apache.lucene.analysis.Analyzer
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute
+import org.apache.lucene.index.{AtomicReaderContext, IndexReader, ReaderUtil, Term}
+import org.apache.lucene.search.{BooleanClause, BooleanQuery, Query, TermQuery}
+import org.apache.lucene.search.similarities.DefaultSimilarity
+
+object TermVectorMoreLikeThis {
+  case class InterestingTerm(term: Term, freq: Int, docFreq: Int, score: Float)
+
+  case class Stats(hits: Long, misses: Long, termVectorReads: Long, analyzedReads: Long, size: Int) {
+    def hitRate: Double = if (hits + misses == 0L) 0.0 else hits.toDouble / (hits + misses)
+
+    override def toString: String =
+      f"hits = $hits, misses = $misses, termVectorReads = $termVectorReads, analyzedReads = $analyzedReads, size = $size, hitRate = ${hitRate * 100}%.2f%%"
+  }
+}
+
+/**
+ * MoreLikeThisと同じtf-idfで「特徴的な語」を選び、BooleanQueryを作る。
+ *
+ * 語の出現回数は、フィールドにタームベクトルがあればそこから読み、なければ保存された値をanalyzerで解析する。
+ * 作ったクエリはドキュメントIDをキーにmaxCacheSize件までキャッシュするので、
+ * 同じドキュメントに対しては解析もタームベクトルの読み込みも行わない。
+ * クエリに含める語はreader全体のdocFreqとnumDocsで選ぶため、キャッシュはこのインスタンスのreader専用で、
+ * 開き直したreaderには新しいインスタンスを作ること。
+ * 選んだ語のdocFreqの合計(ポスティングを読む件数)がmaxPostingsCostを超える語は、クエリに含めない
+ */
+class TermVectorMoreLikeThis(reader: IndexReader,
+                             analyzer: Analyzer,
+                             fieldNames: Seq[String],
+                             minTermFreq: Int = 2,
+                             minDocFreq: Int = 5,
+                             maxQueryTerms: Int = 25,
+                             maxPostingsCost: Long = Long.MaxValue,
+                             boost: Boolean = false,
+                             maxCacheSize: Int = 1000) {
+  import TermVectorMoreLikeThis._
+
+  private val similarity: DefaultSimilarity = new DefaultSimilarity
+
+  private val hits: AtomicLong = new AtomicLong
+  private val misses: AtomicLong = new AtomicLong
+  private val termVectorReads: AtomicLong = new AtomicLong
+  private val analyzedReads: AtomicLong = new AtomicLong
+
+  private val cache = new java.util.LinkedHashMap[Int, Query](16, 0.75F, true) {
+    override def removeEldestEntry(eldest: java.util.Map.Entry[Int, Query]): Boolean =
+      size > maxCacheSize
+  }
+
+  def like(docId: Int): Query = {
+    val cached = cache.synchronized(cache.get(docId))
+
+    val query =
+      if (cached != null) {
+        hits.incrementAndGet()
+        cached
+      } else {
+        misses.incrementAndGet()
+        val created = createQuery(interestingTerms(docId))
+        cache.synchronized(cache.put(docId, created))
+        created
+      }
+
+    query.clone
+  }
+
+  // キャッシュは使わず、毎回タームベクトル(または保存された値)を読む
+  def interestingTerms(docId: Int): Seq[InterestingTerm] = {
+    val leaves = reader.leaves
+    val context = leaves.get(ReaderUtil.subIndex(docId, leaves))
+    interestingTerms(context, docId - context.docBase)
+  }
+
+  def stats: Stats =
+    Stats(hits.get, misses.get, termVectorReads.get, analyzedReads.get, cache.synchronized(cache.size))
+
+  private def interestingTerms(context: AtomicReaderContext, localDocId: Int): Seq[InterestingTerm] = {
+    val numDocs = reader.numDocs
+
+    val candidates =
+      for {
+        field <- fieldNames
+        (text, freq) <- termFrequencies(context, localDocId, field)
+        if freq >= minTermFreq
+        term = new Term(field, text)
+        docFreq = reader.docFreq(term)
+        if docFreq >= minDocFreq && docFreq > 0
+      } yield InterestingTerm(term, freq, docFreq, freq * similarity.idf(docFreq, numDocs))
+
+    // スコアの高い語から、ポスティングのコストの上限に収まるものを選ぶ
+    var cost = 0L
+    candidates
+      .sortBy(-_.score)
+      .iterator
+      .filter { t =>
+        val fits = cost + t.docFreq <= maxPostingsCost
+        if (fits) cost += t.docFreq
+        fits
+      }
+      .take(maxQueryTerms)
+      .toVector
+  }
+
+  private def termFrequencies(context: AtomicReaderContext, localDocId: Int, field: String): Map[String, Int] =
+    Option(context.reader.getTermVector(localDocId, field)) match {
+      case Some(terms) =>
+        termVectorReads.incrementAndGet()
+        val termsEnum = terms.iterator(null)
+        Iterator
+          .continually(termsEnum.next)
+          .takeWhile(_ != null)
+          .map(bytesRef => bytesRef.utf8ToString -> termsEnum.totalTermFreq.toInt)
+          .toMap
+      case None =>
+        analyzedReads.incrementAndGet()
+        val frequencies = mutable.Map.empty[String, Int].withDefaultValue(0)
+        context.reader.document(localDocId).getValues(field).foreach { text =>
+          val tokenStream = analyzer.tokenStream(field, text)
+          try {
+            val charTermAttribute = tokenStream.addAttribute(classOf[CharTermAttribute])
+            tokenStream.reset()
+            while (tokenStream.incrementToken()) {
+              frequencies(charTermAttribute.toString) += 1
+            }
+            tokenStream.end()
+          } finally {
+            tokenStream.close()
+          }
+        }
+        frequencies.toMap
+    }
+
+  private def createQuery(terms: Seq[InterestingTerm]): Query = {
+    val query = new BooleanQuery
+    val bestScore = terms.headOption.map(_.score).getOrElse(1.0F)
+
+    terms.foreach { t =>
+      val termQuery = new TermQuery(t.term)
+      if (boost) termQuery.setBoost(t.score / bestScore)
+      query.add(termQuery, BooleanClause.Occur.SHOULD)
+    }
+
+    query
+  }
+}
@@ -0,0 +1,296 @@
+package org.littlewings.lucene.knn;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Embedding cache persisted to a memory-mapped file of fixed-width records.
+ * <p>
+ * record = [hash1(long)][hash2(long)][vector(float * dimension)], where hash1/hash2 are the first 16 bytes of
+ * SHA-256(model + '\0' + text). Records are appended until capacity is reached, then the least recently used
+ * record slot is reused. The in-memory index is an open addressing table of hash1 to record slot.
+ */
+public class EmbeddingCache implements AutoCloseable {
+    private static final int MAGIC = 0x454d4243;  // EMBC
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int dimension;
+    private final int capacity;
+    private final int recordBytes;
+
+    private int count;
+
+    private final long[] tableKeys;
+    private final int[] tableSlots;
+    private final int tableMask;
+
+    private final int[] prev;
+    private final int[] next;
+    private int head = -1;
+    private int tail = -1;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    EmbeddingCache(FileChannel channel, MappedByteBuffer buffer, int dimension, int capacity) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.dimension = dimension;
+        this.capacity = capacity;
+        this.recordBytes = 16 + dimension * Float.BYTES;
+
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+        this.tableKeys = new long[tableSize];
+        this.tableSlots = new int[tableSize];
+        this.tableMask = tableSize - 1;
+
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+    }
+
+    public static EmbeddingCache open(Path file, int dimension, int capacity) throws IOException {
+        long size = HEADER_BYTES + (long) capacity * (16 + dimension * Float.BYTES);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("cache file too large, dimension = " + dimension + ", capacity = " + capacity);
+        }
+
+        boolean exists = Files.exists(file) && Files.size(file) > 0;
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            EmbeddingCache cache = new EmbeddingCache(channel, buffer, dimension, capacity);
+
+            if (exists) {
+                cache.load();
+            } else {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(8, dimension);
+                buffer.putInt(12, capacity);
+                buffer.putInt(16, 0);
+            }
+
+            return cache;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    void load() throws IOException {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("not an embedding cache file");
+        }
+
+        if (buffer.getInt(8) != dimension || buffer.getInt(12) != capacity) {
+            throw new IOException(String.format(
+                    "incompatible embedding cache file, dimension = %d, capacity = %d",
+                    buffer.getInt(8), buffer.getInt(12)
+            ));
+        }
+
+        count = buffer.getInt(16);
+
+        for (int slot = 0; slot < count; slot++) {
+            long hash1 = buffer.getLong(offset(slot));
+
+            if (hash1 != 0L) {
+                insert(hash1, slot);
+                linkLast(slot);
+            }
+        }
+    }
+
+    public synchronized float[] get(String model, String text) {
+        long[] hash = hash(model, text);
+        int slot = lookup(hash[0], hash[1]);
+
+        if (slot < 0) {
+            misses++;
+            return null;
+        }
+
+        hits++;
+        unlink(slot);
+        linkLast(slot);
+
+        float[] vector = new float[dimension];
+        buffer.slice(offset(slot) + 16, dimension * Float.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asFloatBuffer()
+                .get(vector);
+        return vector;
+    }
+
+    public synchronized void put(String model, String text, float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("dimension mismatch, expected = " + dimension + ", actual = " + vector.length);
+        }
+
+        long[] hash = hash(model, text);
+        int slot = lookup(hash[0], hash[1]);
+
+        if (slot >= 0) {
+            unlink(slot);
+        } else if (count < capacity) {
+            slot = count++;
+            buffer.putInt(16, count);
+            insert(hash[0], slot);
+        } else {
+            slot = head;
+            unlink(slot);
+            remove(buffer.getLong(offset(slot)), slot);
+            evictions++;
+            insert(hash[0], slot);
+        }
+
+        int offset = offset(slot);
+        buffer.putLong(offset, 0L);
+        buffer.slice(offset + 16, dimension * Float.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asFloatBuffer()
+                .put(vector);
+        buffer.putLong(offset + 8, hash[1]);
+        buffer.putLong(offset, hash[0]);
+
+        linkLast(slot);
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    int offset(int slot) {
+        return HEADER_BYTES + slot * recordBytes;
+    }
+
+    static long[] hash(String model, String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(model.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(text.getBytes(StandardCharsets.UTF_8));
+
+            ByteBuffer bytes = ByteBuffer.wrap(digest.digest());
+            long hash1 = bytes.getLong();
+            long hash2 = bytes.getLong();
+
+            // 0 marks an empty table entry / record
+            return new long[]{hash1 == 0L ? 1L : hash1, hash2};
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    int home(long hash1) {
+        return (int) (hash1 ^ (hash1 >>> 32)) & tableMask;
+    }
+
+    int lookup(long hash1, long hash2) {
+        for (int i = home(hash1); tableKeys[i] != 0L; i = (i + 1) & tableMask) {
+            if (tableKeys[i] == hash1 && buffer.getLong(offset(tableSlots[i]) + 8) == hash2) {
+                return tableSlots[i];
+            }
+        }
+
+        return -1;
+    }
+
+    void insert(long hash1, int slot) {
+        int i = home(hash1);
+        while (tableKeys[i] != 0L) {
+            i = (i + 1) & tableMask;
+        }
+
+        tableKeys[i] = hash1;
+        tableSlots[i] = slot;
+    }
+
+    void remove(long hash1, int slot) {
+        int i = home(hash1);
+        while (tableKeys[i] != hash1 || tableSlots[i] != slot) {
+            i = (i + 1) & tableMask;
+        }
+
+        // backward shift deletion, keeps linear probing chains intact without tombstones
+        tableKeys[i] = 0L;
+        for (int j = (i + 1) & tableMask; tableKeys[j] != 0L; j = (j + 1) & tableMask) {
+            int k = home(tableKeys[j]);
+
+            boolean reachable = i <= j ? (i < k && k <= j) : (i < k || k <= j);
+            if (!reachable) {
+                tableKeys[i] = tableKeys[j];
+                tableSlots[i] = tableSlots[j];
+                tableKeys[j] = 0L;
+                i = j;
+            }
+        }
+    }
+
+    void linkLast(int slot) {
+        prev[slot] = tail;
+        next[slot] = -1;
+
+        if (tail >= 0) {
+            next[tail] = slot;
+        } else {
+            head = slot;
+        }
+
+        tail = slot;
+    }
+
+    void unlink(int slot) {
+        if (prev[slot] >= 0) {
+            next[prev[slot]] = next[slot];
+        } else {
+            head = next[slot];
+        }
+
+        if (next[slot] >= 0) {
+            prev[next[slot]] = prev[slot];
+        } else {
+            tail = prev[slot];
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.littlewings.lucene.knn;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmbeddingCacheTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void putAndGet() throws IOException {
+        try (EmbeddingCache cache = EmbeddingCache.open(tempDir.resolve("embeddings.cache"), 3, 10)) {
+            assertThat(cache.get("model", "Apache Lucene")).isNull();
+
+            cache.put("model", "Apache Lucene", new float[]{0.1F, 0.2F, 0.3F});
+
+            assertThat(cache.get("model", "Apache Lucene")).containsExactly(0.1F, 0.2F, 0.3F);
+            assertThat(cache.get("other-model", "Apache Lucene")).isNull();
+            assertThat(cache.getHitCount()).isEqualTo(1L);
+            assertThat(cache.getMissCount()).isEqualTo(2L);
+        }
+    }
+
+    @Test
+    void reopen() throws IOException {
+        Path file = tempDir.resolve("embeddings.cache");
+
+        try (EmbeddingCache cache = EmbeddingCache.open(file, 3, 10)) {
+            cache.put("model", "Apache Lucene", new float[]{0.1F, 0.2F, 0.3F});
+            cache.put("model", "Apache Solr", new float[]{0.4F, 0.5F, 0.6F});
+        }
+
+        try (EmbeddingCache cache = EmbeddingCache.open(file, 3, 10)) {
+            assertThat(cache.size()).isEqualTo(2);
+            assertThat(cache.get("model", "Apache Lucene")).containsExactly(0.1F, 0.2F, 0.3F);
+            assertThat(cache.get("model", "Apache Solr")).containsExactly(0.4F, 0.5F, 0.6F);
+        }
+    }
+
+    @Test
+    void evictLeastRecentlyUsed() throws IOException {
+        try (EmbeddingCache cache = EmbeddingCache.open(tempDir.resolve("embeddings.cache"), 1, 3)) {
+            cache.put("model", "a", new float[]{1F});
+            cache.put("model", "b", new float[]{2F});
+            cache.put("model", "c", new float[]{3F});
+
+            cache.get("model", "a");
+
+            cache.put("model", "d", new float[]{4F});
+
+            assertThat(cache.size()).isEqualTo(3);
+            assertThat(cache.getEvictionCount()).isEqualTo(1L);
+            assertThat(cache.get("model", "b")).isNull();
+            assertThat(cache.get("model", "a")).containsExactly(1F);
+            assertThat(cache.get("model", "c")).containsExactly(3F);
+            assertThat(cache.get("model", "d")).containsExactly(4F);
+        }
+    }
+}
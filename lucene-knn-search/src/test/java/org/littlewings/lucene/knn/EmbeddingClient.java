@@ -1,28 +1,53 @@
 package org.littlewings.lucene.knn;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 public class EmbeddingClient implements AutoCloseable {
     private String url;
     private HttpClient httpClient;
     private ObjectMapper objectMapper;
+    private int batchSize;
+    private int maxInFlight;
+    private EmbeddingCache cache;
 
-    EmbeddingClient(String host, int port, HttpClient httpClient) {
+    EmbeddingClient(String host, int port, HttpClient httpClient, int batchSize, int maxInFlight) {
         this.url = String.format("http://%s:%d/embeddings/encode", host, port);
         this.httpClient = httpClient;
         this.objectMapper = new ObjectMapper();
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
     }
 
     public static EmbeddingClient create(String host, int port) {
+        return create(host, port, 4, 8);
+    }
+
+    public static EmbeddingClient create(String host, int port, int batchSize, int maxInFlight) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be > 0, but " + batchSize);
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be > 0, but " + maxInFlight);
+        }
+
         return new EmbeddingClient(
                 host,
                 port,
@@ -30,11 +55,33 @@ public class EmbeddingClient implements AutoCloseable {
                         .newBuilder()
                         .version(HttpClient.Version.HTTP_1_1)
                         .followRedirects(HttpClient.Redirect.ALWAYS)
-                        .build()
+                        .build(),
+                batchSize,
+                maxInFlight
         );
     }
 
+    public EmbeddingClient withCache(EmbeddingCache cache) {
+        this.cache = cache;
+        return this;
+    }
+
     public EmbeddingResponse execute(EmbeddingRequest request) {
+        if (cache == null) {
+            return executeRemote(request);
+        }
+
+        float[] cached = cache.get(request.model(), request.text());
+        if (cached != null) {
+            return new EmbeddingResponse(request.model(), cached, cached.length);
+        }
+
+        EmbeddingResponse response = executeRemote(request);
+        cache.put(request.model(), request.text(), response.embedding());
+        return response;
+    }
+
+    EmbeddingResponse executeRemote(EmbeddingRequest request) {
         try {
             String json = objectMapper.writeValueAsString(request);
 
@@ -45,11 +92,11 @@ public class EmbeddingClient implements AutoCloseable {
                             .POST(HttpRequest.BodyPublishers.ofString(json))
                             .build();
 
-            HttpResponse<String> httpResponse =
+            HttpResponse<InputStream> httpResponse =
                     httpClient
-                            .send(httpRequest, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+                            .send(httpRequest, HttpResponse.BodyHandlers.ofInputStream());
 
-            return objectMapper.readValue(httpResponse.body(), EmbeddingResponse.class);
+            return readResponse(httpResponse.body());
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         } catch (InterruptedException e) {
@@ -57,6 +104,93 @@ public class EmbeddingClient implements AutoCloseable {
         }
     }
 
+    EmbeddingResponse readResponse(InputStream body) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("unexpected response, token = " + parser.currentToken());
+            }
+
+            String model = null;
+            float[] embedding = new float[0];
+            int dimention = 0;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+
+                switch (name) {
+                    case "model" -> model = parser.getValueAsString();
+                    case "embedding" -> embedding = readFloats(parser);
+                    case "dimention" -> dimention = parser.getValueAsInt();
+                    default -> parser.skipChildren();
+                }
+            }
+
+            return new EmbeddingResponse(model, embedding, dimention);
+        }
+    }
+
+    float[] readFloats(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return new float[0];
+        }
+
+        float[] values = new float[1024];
+        int size = 0;
+
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+
+            values[size++] = parser.getFloatValue();
+        }
+
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    public List<EmbeddingResponse> executeAll(List<EmbeddingRequest> requests) {
+        EmbeddingResponse[] responses = new EmbeddingResponse[requests.size()];
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+
+            for (int from = 0; from < requests.size(); from += batchSize) {
+                int start = from;
+                int end = Math.min(from + batchSize, requests.size());
+
+                futures.add(executor.submit(() -> {
+                    for (int i = start; i < end; i++) {
+                        inFlight.acquire();
+                        try {
+                            responses[i] = execute(requests.get(i));
+                        } finally {
+                            inFlight.release();
+                        }
+                    }
+
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            } else {
+                throw new RuntimeException(e.getCause());
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+
+        return List.of(responses);
+    }
+
     @Override
     public void close() {
         httpClient.close();
@@ -65,6 +199,6 @@ public class EmbeddingClient implements AutoCloseable {
     public record EmbeddingRequest(String model, String text) {
     }
 
-    public record EmbeddingResponse(String model, List<Float> embedding, int dimention) {
+    public record EmbeddingResponse(String model, float[] embedding, int dimention) {
     }
 }
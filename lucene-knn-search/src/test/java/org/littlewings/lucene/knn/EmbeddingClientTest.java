@@ -0,0 +1,143 @@
+package org.littlewings.lucene.knn;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmbeddingClientTest {
+    HttpServer server;
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    AtomicInteger requestCount = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/embeddings/encode", exchange -> {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            requestCount.incrementAndGet();
+
+            try {
+                EmbeddingClient.EmbeddingRequest request =
+                        objectMapper.readValue(exchange.getRequestBody(), EmbeddingClient.EmbeddingRequest.class);
+
+                Thread.sleep(20L);
+
+                // returns the text length as 1-dimension embedding
+                byte[] body = objectMapper.writeValueAsBytes(Map.of(
+                        "model", request.model(),
+                        "embedding", List.of((float) request.text().length()),
+                        "dimention", 1
+                ));
+
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void executeAll() {
+        try (EmbeddingClient embeddingClient = EmbeddingClient.create("localhost", server.getAddress().getPort(), 3, 4)) {
+            List<EmbeddingClient.EmbeddingRequest> requests =
+                    IntStream.rangeClosed(1, 50)
+                            .mapToObj(i -> new EmbeddingClient.EmbeddingRequest("stub", "x".repeat(i)))
+                            .toList();
+
+            List<EmbeddingClient.EmbeddingResponse> responses = embeddingClient.executeAll(requests);
+
+            assertThat(responses).hasSize(50);
+            for (int i = 0; i < responses.size(); i++) {
+                assertThat(responses.get(i).embedding()).containsExactly((float) (i + 1));
+            }
+
+            assertThat(requestCount.get()).isEqualTo(50);
+            assertThat(maxInFlight.get()).isGreaterThan(1).isLessThanOrEqualTo(4);
+        }
+    }
+
+    @Test
+    void executeAllWithCache(@TempDir Path tempDir) throws IOException {
+        List<EmbeddingClient.EmbeddingRequest> requests =
+                IntStream.rangeClosed(1, 20)
+                        .mapToObj(i -> new EmbeddingClient.EmbeddingRequest("stub", "x".repeat(i)))
+                        .toList();
+
+        try (EmbeddingCache cache = EmbeddingCache.open(tempDir.resolve("embeddings.cache"), 1, 100);
+             EmbeddingClient embeddingClient =
+                     EmbeddingClient.create("localhost", server.getAddress().getPort()).withCache(cache)) {
+            embeddingClient.executeAll(requests);
+        }
+
+        assertThat(requestCount.get()).isEqualTo(20);
+
+        // warm re-index, only changed texts go to the server
+        List<EmbeddingClient.EmbeddingRequest> changed =
+                IntStream.rangeClosed(1, 22)
+                        .mapToObj(i -> new EmbeddingClient.EmbeddingRequest("stub", "x".repeat(i)))
+                        .toList();
+
+        try (EmbeddingCache cache = EmbeddingCache.open(tempDir.resolve("embeddings.cache"), 1, 100);
+             EmbeddingClient embeddingClient =
+                     EmbeddingClient.create("localhost", server.getAddress().getPort()).withCache(cache)) {
+            List<EmbeddingClient.EmbeddingResponse> responses = embeddingClient.executeAll(changed);
+
+            assertThat(responses).hasSize(22);
+            assertThat(responses.get(21).embedding()).containsExactly(22F);
+            assertThat(cache.getHitCount()).isEqualTo(20L);
+        }
+
+        assertThat(requestCount.get()).isEqualTo(22);
+    }
+
+    @Test
+    void executeAllEmpty() {
+        try (EmbeddingClient embeddingClient = EmbeddingClient.create("localhost", server.getAddress().getPort())) {
+            assertThat(embeddingClient.executeAll(List.of())).isEmpty();
+            assertThat(requestCount.get()).isZero();
+        }
+    }
+
+    @Test
+    void invalidArguments() {
+        assertThatThrownBy(() -> EmbeddingClient.create("localhost", server.getAddress().getPort(), 0, 4))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("batchSize");
+        assertThatThrownBy(() -> EmbeddingClient.create("localhost", server.getAddress().getPort(), 3, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("maxInFlight");
+    }
+}
@@ -0,0 +1,87 @@
+package org.littlewings.lucene.knn;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EmbeddingResponseDecodeBenchmark {
+    @Param({"768", "1024"})
+    int dimension;
+
+    ObjectMapper objectMapper;
+    EmbeddingClient embeddingClient;
+    byte[] body;
+
+    public static void main(String... args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(EmbeddingResponseDecodeBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+        embeddingClient = EmbeddingClient.create("localhost", 8000);
+
+        Random random = new Random(42L);
+        List<Float> embedding =
+                IntStream.range(0, dimension)
+                        .mapToObj(i -> random.nextFloat() * 2 - 1)
+                        .toList();
+
+        body = objectMapper.writeValueAsBytes(Map.of(
+                "model", "intfloat/multilingual-e5-base",
+                "embedding", embedding,
+                "dimention", dimension
+        ));
+    }
+
+    @TearDown
+    public void tearDown() {
+        embeddingClient.close();
+    }
+
+    @Benchmark
+    public float[] boxed() throws IOException {
+        // previous path: String body -> List<Float> -> float[]
+        BoxedEmbeddingResponse response =
+                objectMapper.readValue(new String(body, StandardCharsets.UTF_8), BoxedEmbeddingResponse.class);
+
+        float[] vector = new float[response.embedding().size()];
+        for (int i = 0; i < response.embedding().size(); i++) {
+            vector[i] = response.embedding().get(i);
+        }
+
+        return vector;
+    }
+
+    @Benchmark
+    public float[] streaming() throws IOException {
+        return embeddingClient.readResponse(new ByteArrayInputStream(body)).embedding();
+    }
+
+    public record BoxedEmbeddingResponse(String model, List<Float> embedding, int dimention) {
+    }
+}
@@ -0,0 +1,119 @@
+package org.littlewings.lucene.knn;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntField;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.KnnFloatVectorQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FilteredKnnBenchmark {
+    static final int NUM_DOCS = 100_000;
+    static final int NUM_QUERIES = 100;
+    static final int DIMENSION = 128;
+    static final int K = 10;
+
+    @Param({"0.001", "0.01", "0.1", "1.0"})
+    double selectivity;
+
+    Directory directory;
+    DirectoryReader reader;
+    IndexSearcher searcher;
+    Query filter;
+
+    float[][] queries;
+    int queryIndex;
+
+    FilteredKnnFloatVectorQuery lastPlannedQuery;
+
+    public static void main(String... args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(FilteredKnnBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(options).run();
+    }
+
+    static float[][] randomVectors(Random random, int count) {
+        float[][] vectors = new float[count][DIMENSION];
+        for (float[] vector : vectors) {
+            for (int i = 0; i < DIMENSION; i++) {
+                vector[i] = (float) random.nextGaussian();
+            }
+        }
+        return vectors;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42L);
+        queries = randomVectors(random, NUM_QUERIES);
+
+        directory = new ByteBuffersDirectory();
+
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+            for (float[] vector : randomVectors(random, NUM_DOCS)) {
+                Document document = new Document();
+                document.add(new IntField("bucket", random.nextInt(100_000), Field.Store.NO));
+                document.add(new KnnFloatVectorField("vector", vector, VectorSimilarityFunction.EUCLIDEAN));
+                writer.addDocument(document);
+            }
+        }
+
+        reader = DirectoryReader.open(directory);
+        searcher = new IndexSearcher(reader);
+        filter = IntPoint.newRangeQuery("bucket", 0, (int) (100_000 * selectivity) - 1);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (lastPlannedQuery != null) {
+            System.out.printf(
+                    "%n[selectivity = %s] exact = %d, approximate = %d (per query, per segment)%n",
+                    selectivity,
+                    lastPlannedQuery.getExactSearchCount(),
+                    lastPlannedQuery.getApproximateSearchCount()
+            );
+        }
+
+        reader.close();
+        directory.close();
+    }
+
+    @Benchmark
+    public TopDocs knnFloatVectorQuery() throws IOException {
+        float[] query = queries[queryIndex++ % NUM_QUERIES];
+        return searcher.search(new KnnFloatVectorQuery("vector", query, K, filter), K);
+    }
+
+    @Benchmark
+    public TopDocs filteredKnnFloatVectorQuery() throws IOException {
+        float[] query = queries[queryIndex++ % NUM_QUERIES];
+        lastPlannedQuery = new FilteredKnnFloatVectorQuery("vector", query, K, filter, 0.05);
+        return searcher.search(lastPlannedQuery, K);
+    }
+}
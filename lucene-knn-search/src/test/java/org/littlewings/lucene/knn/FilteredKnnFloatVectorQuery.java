@@ -0,0 +1,341 @@
+package org.littlewings.lucene.knn;
+
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FloatVectorValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.*;
+import org.apache.lucene.util.BitSet;
+import org.apache.lucene.util.BitSetIterator;
+import org.apache.lucene.util.Bits;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Filtered kNN query that chooses, per segment, between an exact scan over the filter matches and HNSW traversal.
+ * <p>
+ * The filter is materialized as a bitset per segment, so its cardinality is exact. When it is at most
+ * max(k, exactSearchRatio * maxDoc), the matching vectors are scored directly (VectorSimilarityFunction uses the
+ * vectorized VectorUtil implementation), otherwise the HNSW graph is searched with the filter as acceptDocs.
+ */
+public class FilteredKnnFloatVectorQuery extends Query {
+    private static final TopDocs EMPTY_TOP_DOCS = new TopDocs(new TotalHits(0, TotalHits.Relation.EQUAL_TO), new ScoreDoc[0]);
+
+    private final String field;
+    private final float[] target;
+    private final int k;
+    private final Query filter;
+    private final double exactSearchRatio;
+
+    private final AtomicLong exactSearchCount = new AtomicLong();
+    private final AtomicLong approximateSearchCount = new AtomicLong();
+
+    public FilteredKnnFloatVectorQuery(String field, float[] target, int k, Query filter, double exactSearchRatio) {
+        this.field = Objects.requireNonNull(field);
+        this.target = Objects.requireNonNull(target);
+        this.k = k;
+        this.filter = filter;
+        this.exactSearchRatio = exactSearchRatio;
+    }
+
+    @Override
+    public Query rewrite(IndexSearcher indexSearcher) throws IOException {
+        Weight filterWeight = null;
+
+        if (filter != null) {
+            Query rewritten = indexSearcher.rewrite(
+                    new BooleanQuery.Builder()
+                            .add(filter, BooleanClause.Occur.FILTER)
+                            .add(new FieldExistsQuery(field), BooleanClause.Occur.FILTER)
+                            .build()
+            );
+            filterWeight = indexSearcher.createWeight(rewritten, ScoreMode.COMPLETE_NO_SCORES, 1F);
+        }
+
+        List<LeafReaderContext> leaves = indexSearcher.getIndexReader().leaves();
+        TopDocs[] perLeafResults = new TopDocs[leaves.size()];
+
+        for (int i = 0; i < leaves.size(); i++) {
+            LeafReaderContext context = leaves.get(i);
+            TopDocs results = searchLeaf(context, filterWeight);
+
+            for (ScoreDoc scoreDoc : results.scoreDocs) {
+                scoreDoc.doc += context.docBase;
+            }
+
+            perLeafResults[i] = results;
+        }
+
+        return new TopDocsQuery(TopDocs.merge(k, perLeafResults).scoreDocs, indexSearcher.getIndexReader().getContext().id());
+    }
+
+    TopDocs searchLeaf(LeafReaderContext context, Weight filterWeight) throws IOException {
+        LeafReader reader = context.reader();
+        FieldInfo fieldInfo = reader.getFieldInfos().fieldInfo(field);
+
+        if (fieldInfo == null || !fieldInfo.hasVectorValues()) {
+            return EMPTY_TOP_DOCS;
+        }
+
+        Bits liveDocs = reader.getLiveDocs();
+
+        if (filterWeight == null) {
+            approximateSearchCount.incrementAndGet();
+            return reader.searchNearestVectors(field, target, k, liveDocs, Integer.MAX_VALUE);
+        }
+
+        Scorer scorer = filterWeight.scorer(context);
+        if (scorer == null) {
+            return EMPTY_TOP_DOCS;
+        }
+
+        DocIdSetIterator iterator = scorer.iterator();
+        if (liveDocs != null) {
+            iterator = new FilteredDocIdSetIterator(iterator) {
+                @Override
+                protected boolean match(int doc) {
+                    return liveDocs.get(doc);
+                }
+            };
+        }
+
+        BitSet acceptDocs = BitSet.of(iterator, reader.maxDoc());
+        int cardinality = acceptDocs.cardinality();
+
+        if (cardinality <= Math.max(k, exactSearchRatio * reader.maxDoc())) {
+            exactSearchCount.incrementAndGet();
+            return exactSearch(reader, fieldInfo.getVectorSimilarityFunction(), new BitSetIterator(acceptDocs, cardinality));
+        }
+
+        approximateSearchCount.incrementAndGet();
+        TopDocs results = reader.searchNearestVectors(field, target, k, acceptDocs, cardinality);
+
+        if (results.totalHits.relation == TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO) {
+            // graph traversal visited more nodes than the filter matches, same fallback as KnnFloatVectorQuery
+            exactSearchCount.incrementAndGet();
+            return exactSearch(reader, fieldInfo.getVectorSimilarityFunction(), new BitSetIterator(acceptDocs, cardinality));
+        }
+
+        return results;
+    }
+
+    TopDocs exactSearch(LeafReader reader, VectorSimilarityFunction similarityFunction, DocIdSetIterator acceptIterator) throws IOException {
+        FloatVectorValues vectorValues = reader.getFloatVectorValues(field);
+        TopKnnCollector collector = new TopKnnCollector(k, Integer.MAX_VALUE);
+
+        for (int doc = acceptIterator.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = acceptIterator.nextDoc()) {
+            int vectorDoc = vectorValues.docID() < doc ? vectorValues.advance(doc) : vectorValues.docID();
+            if (vectorDoc != doc) {
+                continue;
+            }
+
+            collector.incVisitedCount(1);
+            collector.collect(doc, similarityFunction.compare(target, vectorValues.vectorValue()));
+        }
+
+        return collector.topDocs();
+    }
+
+    public long getExactSearchCount() {
+        return exactSearchCount.get();
+    }
+
+    public long getApproximateSearchCount() {
+        return approximateSearchCount.get();
+    }
+
+    @Override
+    public String toString(String field) {
+        return getClass().getSimpleName() + ":" + this.field + "[" + target[0] + ",...][" + k + "]" +
+                (filter != null ? "[" + filter + "]" : "");
+    }
+
+    @Override
+    public void visit(QueryVisitor visitor) {
+        if (visitor.acceptField(field)) {
+            visitor.visitLeaf(this);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!sameClassAs(o)) {
+            return false;
+        }
+
+        FilteredKnnFloatVectorQuery other = (FilteredKnnFloatVectorQuery) o;
+        return field.equals(other.field) &&
+                Arrays.equals(target, other.target) &&
+                k == other.k &&
+                Objects.equals(filter, other.filter) &&
+                exactSearchRatio == other.exactSearchRatio;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(classHash(), field, Arrays.hashCode(target), k, filter, exactSearchRatio);
+    }
+
+    /**
+     * Matches the merged top-k hits with their kNN scores, docs are global (top level reader) doc ids.
+     * The ids are only valid for the reader the query was rewritten against, so its context id is part of equality,
+     * otherwise the query cache could share doc sets between readers with different doc bases.
+     */
+    static class TopDocsQuery extends Query {
+        private final int[] docs;
+        private final float[] scores;
+        private final Object contextIdentity;
+
+        TopDocsQuery(ScoreDoc[] scoreDocs, Object contextIdentity) {
+            this.contextIdentity = Objects.requireNonNull(contextIdentity);
+
+            ScoreDoc[] sorted = scoreDocs.clone();
+            Arrays.sort(sorted, (d1, d2) -> Integer.compare(d1.doc, d2.doc));
+
+            docs = new int[sorted.length];
+            scores = new float[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                docs[i] = sorted[i].doc;
+                scores[i] = sorted[i].score;
+            }
+        }
+
+        @Override
+        public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) {
+            if (searcher.getIndexReader().getContext().id() != contextIdentity) {
+                throw new IllegalStateException("This query was rewritten against a different reader");
+            }
+
+            return new Weight(this) {
+                @Override
+                public Explanation explain(LeafReaderContext context, int doc) {
+                    int i = Arrays.binarySearch(docs, doc + context.docBase);
+
+                    if (i < 0) {
+                        return Explanation.noMatch("not in top " + docs.length);
+                    }
+
+                    return Explanation.match(scores[i] * boost, "within top " + docs.length);
+                }
+
+                @Override
+                public Scorer scorer(LeafReaderContext context) {
+                    int start = lowerBound(context.docBase);
+                    int end = lowerBound(context.docBase + context.reader().maxDoc());
+
+                    if (start == end) {
+                        return null;
+                    }
+
+                    return new TopDocsScorer(this, context.docBase, start, end, boost);
+                }
+
+                @Override
+                public boolean isCacheable(LeafReaderContext context) {
+                    return true;
+                }
+            };
+        }
+
+        int lowerBound(int doc) {
+            int i = Arrays.binarySearch(docs, doc);
+            return i >= 0 ? i : -i - 1;
+        }
+
+        class TopDocsScorer extends Scorer {
+            private final int docBase;
+            private final int start;
+            private final int end;
+            private final float boost;
+            private int upTo = -1;
+
+            TopDocsScorer(Weight weight, int docBase, int start, int end, float boost) {
+                super(weight);
+                this.docBase = docBase;
+                this.start = start;
+                this.end = end;
+                this.boost = boost;
+            }
+
+            @Override
+            public int docID() {
+                if (upTo < start) {
+                    return -1;
+                } else if (upTo >= end) {
+                    return DocIdSetIterator.NO_MORE_DOCS;
+                } else {
+                    return docs[upTo] - docBase;
+                }
+            }
+
+            @Override
+            public DocIdSetIterator iterator() {
+                return new DocIdSetIterator() {
+                    @Override
+                    public int docID() {
+                        return TopDocsScorer.this.docID();
+                    }
+
+                    @Override
+                    public int nextDoc() {
+                        upTo = upTo < start ? start : upTo + 1;
+                        return docID();
+                    }
+
+                    @Override
+                    public int advance(int target) throws IOException {
+                        return slowAdvance(target);
+                    }
+
+                    @Override
+                    public long cost() {
+                        return end - start;
+                    }
+                };
+            }
+
+            @Override
+            public float getMaxScore(int upTo) {
+                float maxScore = 0F;
+                for (int i = start; i < end; i++) {
+                    maxScore = Math.max(maxScore, scores[i]);
+                }
+
+                return maxScore * boost;
+            }
+
+            @Override
+            public float score() {
+                return scores[upTo] * boost;
+            }
+        }
+
+        @Override
+        public String toString(String field) {
+            return getClass().getSimpleName() + "[" + docs.length + "]";
+        }
+
+        @Override
+        public void visit(QueryVisitor visitor) {
+            visitor.visitLeaf(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return sameClassAs(o) &&
+                    Arrays.equals(docs, ((TopDocsQuery) o).docs) &&
+                    Arrays.equals(scores, ((TopDocsQuery) o).scores) &&
+                    contextIdentity == ((TopDocsQuery) o).contextIdentity;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(classHash(), Arrays.hashCode(docs), Arrays.hashCode(scores), contextIdentity);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.littlewings.lucene.knn;
+
+import org.apache.lucene.document.*;
+import org.apache.lucene.index.*;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FilteredKnnFloatVectorQueryTest {
+    static final int NUM_DOCS = 2000;
+
+    float[][] randomVectors(Random random, int count) {
+        float[][] vectors = new float[count][8];
+        for (float[] vector : vectors) {
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = random.nextFloat();
+            }
+        }
+        return vectors;
+    }
+
+    void index(Directory directory, float[][] vectors) throws IOException {
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+            for (int i = 0; i < vectors.length; i++) {
+                Document document = new Document();
+                document.add(new StoredField("id", i));
+                document.add(new IntField("year", 1000 + i, Field.Store.NO));
+                document.add(new KnnFloatVectorField("vector", vectors[i], VectorSimilarityFunction.EUCLIDEAN));
+                writer.addDocument(document);
+            }
+        }
+    }
+
+    int[] resultIds(IndexSearcher searcher, TopDocs topDocs) throws IOException {
+        StoredFields storedFields = searcher.storedFields();
+        int[] ids = new int[topDocs.scoreDocs.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = storedFields.document(topDocs.scoreDocs[i].doc).getField("id").numericValue().intValue();
+        }
+        return ids;
+    }
+
+    @Test
+    void selectiveFilterUsesExactSearch() throws IOException {
+        Random random = new Random(42L);
+        float[][] vectors = randomVectors(random, NUM_DOCS);
+        float[] target = randomVectors(random, 1)[0];
+
+        try (Directory directory = new ByteBuffersDirectory()) {
+            index(directory, vectors);
+
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+
+                // 20 docs match (1%)
+                Query filter = IntPoint.newRangeQuery("year", 1000, 1019);
+                FilteredKnnFloatVectorQuery query =
+                        new FilteredKnnFloatVectorQuery("vector", target, 5, filter, 0.05);
+
+                TopDocs topDocs = searcher.search(query, 5);
+
+                int[] expected =
+                        IntStream.range(0, 20)
+                                .boxed()
+                                .sorted(Comparator.comparingDouble(
+                                        (Integer i) -> VectorSimilarityFunction.EUCLIDEAN.compare(target, vectors[i])
+                                ).reversed())
+                                .limit(5)
+                                .mapToInt(Integer::intValue)
+                                .toArray();
+
+                assertThat(resultIds(searcher, topDocs)).containsExactly(expected);
+                assertThat(query.getExactSearchCount()).isEqualTo(reader.leaves().size());
+                assertThat(query.getApproximateSearchCount()).isZero();
+            }
+        }
+    }
+
+    @Test
+    void broadFilterUsesHnsw() throws IOException {
+        Random random = new Random(42L);
+        float[][] vectors = randomVectors(random, NUM_DOCS);
+        float[] target = randomVectors(random, 1)[0];
+
+        try (Directory directory = new ByteBuffersDirectory()) {
+            index(directory, vectors);
+
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+
+                // all docs match
+                Query filter = IntPoint.newRangeQuery("year", 0, Integer.MAX_VALUE);
+                FilteredKnnFloatVectorQuery query =
+                        new FilteredKnnFloatVectorQuery("vector", target, 5, filter, 0.05);
+
+                TopDocs topDocs = searcher.search(query, 5);
+
+                assertThat(topDocs.scoreDocs).hasSize(5);
+                assertThat(query.getApproximateSearchCount()).isEqualTo(reader.leaves().size());
+                assertThat(Arrays.stream(topDocs.scoreDocs).mapToDouble(scoreDoc -> scoreDoc.score))
+                        .isSortedAccordingTo(Comparator.reverseOrder());
+            }
+        }
+    }
+
+    @Test
+    void rewrittenQueryIsBoundToReader() throws IOException {
+        Random random = new Random(42L);
+        float[][] vectors = randomVectors(random, NUM_DOCS);
+        float[] target = randomVectors(random, 1)[0];
+
+        try (Directory directory = new ByteBuffersDirectory()) {
+            index(directory, vectors);
+
+            try (DirectoryReader reader1 = DirectoryReader.open(directory);
+                 DirectoryReader reader2 = DirectoryReader.open(directory)) {
+                IndexSearcher searcher1 = new IndexSearcher(reader1);
+                IndexSearcher searcher2 = new IndexSearcher(reader2);
+
+                FilteredKnnFloatVectorQuery query =
+                        new FilteredKnnFloatVectorQuery("vector", target, 5, null, 0.05);
+
+                // same doc ids and scores, but the doc bases belong to different top level readers
+                Query rewritten1 = searcher1.rewrite(query);
+                Query rewritten2 = searcher2.rewrite(query);
+
+                assertThat(rewritten1).isEqualTo(searcher1.rewrite(query));
+                assertThat(rewritten1).isNotEqualTo(rewritten2);
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.littlewings.lucene.knn;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.KnnFloatVectorQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs a lexical (BM25) query and a kNN query concurrently on the same IndexSearcher and fuses both rankings.
+ */
+public class HybridSearcher {
+    private IndexSearcher searcher;
+    private Executor executor;
+
+    public HybridSearcher(IndexSearcher searcher, Executor executor) {
+        this.searcher = searcher;
+        this.executor = executor;
+    }
+
+    public HybridResult search(Query lexicalQuery, KnnFloatVectorQuery vectorQuery, int k, int windowSize, Fusion fusion) {
+        return search(lexicalQuery, vectorQuery, k, windowSize, fusion, null);
+    }
+
+    public HybridResult search(Query lexicalQuery, KnnFloatVectorQuery vectorQuery, int k, int windowSize, Fusion fusion, Set<String> fieldsToLoad) {
+        CompletableFuture<Leg> lexicalLeg = CompletableFuture.supplyAsync(() -> searchLeg(lexicalQuery, windowSize), executor);
+        CompletableFuture<Leg> vectorLeg = CompletableFuture.supplyAsync(() -> searchLeg(vectorQuery, windowSize), executor);
+
+        Leg lexical;
+        Leg vector;
+        try {
+            lexical = lexicalLeg.join();
+            vector = vectorLeg.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException uioe) {
+                throw uioe;
+            }
+
+            throw e;
+        }
+
+        long fusionStartTime = System.nanoTime();
+        List<ScoreDoc> fused = fusion.fuse(lexical.topDocs(), vector.topDocs(), k);
+        long fusionNanos = System.nanoTime() - fusionStartTime;
+
+        Map<Integer, Integer> lexicalRanks = ranks(lexical.topDocs());
+        Map<Integer, Integer> vectorRanks = ranks(vector.topDocs());
+
+        long fetchStartTime = System.nanoTime();
+        List<Hit> hits = new ArrayList<>(fused.size());
+        try {
+            StoredFields storedFields = searcher.storedFields();
+
+            for (ScoreDoc scoreDoc : fused) {
+                Document document =
+                        fieldsToLoad != null ? storedFields.document(scoreDoc.doc, fieldsToLoad) : storedFields.document(scoreDoc.doc);
+
+                hits.add(new Hit(
+                        scoreDoc.doc,
+                        scoreDoc.score,
+                        document,
+                        lexicalRanks.getOrDefault(scoreDoc.doc, -1),
+                        vectorRanks.getOrDefault(scoreDoc.doc, -1)
+                ));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long fetchNanos = System.nanoTime() - fetchStartTime;
+
+        return new HybridResult(hits, new Latency(lexical.nanos(), vector.nanos(), fusionNanos, fetchNanos));
+    }
+
+    Leg searchLeg(Query query, int n) {
+        long startTime = System.nanoTime();
+
+        try {
+            TopDocs topDocs = searcher.search(query, n);
+            return new Leg(topDocs, System.nanoTime() - startTime);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Map<Integer, Integer> ranks(TopDocs topDocs) {
+        Map<Integer, Integer> ranks = new HashMap<>();
+
+        for (int i = 0; i < topDocs.scoreDocs.length; i++) {
+            ranks.put(topDocs.scoreDocs[i].doc, i + 1);
+        }
+
+        return ranks;
+    }
+
+    static List<ScoreDoc> topK(Map<Integer, Float> scores, int k) {
+        return scores.entrySet()
+                .stream()
+                .map(e -> new ScoreDoc(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparing((ScoreDoc scoreDoc) -> scoreDoc.score).reversed().thenComparingInt(scoreDoc -> scoreDoc.doc))
+                .limit(k)
+                .toList();
+    }
+
+    record Leg(TopDocs topDocs, long nanos) {
+    }
+
+    public sealed interface Fusion permits ReciprocalRankFusion, WeightedScoreFusion {
+        List<ScoreDoc> fuse(TopDocs lexical, TopDocs vector, int k);
+    }
+
+    /**
+     * score(d) = sum of 1 / (rankConstant + rank(d)) over both rankings.
+     */
+    public record ReciprocalRankFusion(int rankConstant) implements Fusion {
+        public ReciprocalRankFusion() {
+            this(60);
+        }
+
+        @Override
+        public List<ScoreDoc> fuse(TopDocs lexical, TopDocs vector, int k) {
+            Map<Integer, Float> scores = new HashMap<>();
+
+            for (TopDocs topDocs : List.of(lexical, vector)) {
+                for (int i = 0; i < topDocs.scoreDocs.length; i++) {
+                    scores.merge(topDocs.scoreDocs[i].doc, 1F / (rankConstant + i + 1), Float::sum);
+                }
+            }
+
+            return topK(scores, k);
+        }
+    }
+
+    /**
+     * Min-max normalizes each ranking to [0, 1], then sums them with the given weights.
+     */
+    public record WeightedScoreFusion(float lexicalWeight, float vectorWeight) implements Fusion {
+        @Override
+        public List<ScoreDoc> fuse(TopDocs lexical, TopDocs vector, int k) {
+            Map<Integer, Float> scores = new HashMap<>();
+
+            addNormalized(scores, lexical, lexicalWeight);
+            addNormalized(scores, vector, vectorWeight);
+
+            return topK(scores, k);
+        }
+
+        static void addNormalized(Map<Integer, Float> scores, TopDocs topDocs, float weight) {
+            if (topDocs.scoreDocs.length == 0) {
+                return;
+            }
+
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                min = Math.min(min, scoreDoc.score);
+                max = Math.max(max, scoreDoc.score);
+            }
+
+            float range = max - min;
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                float normalized = range > 0F ? (scoreDoc.score - min) / range : 1F;
+                scores.merge(scoreDoc.doc, weight * normalized, Float::sum);
+            }
+        }
+    }
+
+    /**
+     * lexicalRank / vectorRank are 1-origin, -1 when the document was not returned by that leg.
+     */
+    public record Hit(int doc, float score, Document document, int lexicalRank, int vectorRank) {
+    }
+
+    public record Latency(long lexicalNanos, long vectorNanos, long fusionNanos, long fetchNanos) {
+    }
+
+    public record HybridResult(List<Hit> hits, Latency latency) {
+    }
+}
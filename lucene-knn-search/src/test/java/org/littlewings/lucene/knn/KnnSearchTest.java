@@ -13,6 +13,8 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -37,18 +39,11 @@ class KnnSearchTest {
                         text
                 );
 
-        EmbeddingClient.EmbeddingResponse response = embeddingClient.execute(request);
-
-        float[] vector = new float[response.embedding().size()];
-        for (int i = 0; i < response.embedding().size(); i++) {
-            vector[i] = response.embedding().get(i);
-        }
-
-        return vector;
+        return embeddingClient.execute(request).embedding();
     }
 
     List<Document> createDocuments() {
-        return List.of(
+        List<Document> documents = List.of(
                 createDocument(
                         "The Time Machine",
                         "A man travels through time and witnesses the evolution of humanity.",
@@ -128,6 +123,28 @@ class KnnSearchTest {
                         2008
                 )
         );
+
+        addDescriptionVectors(documents);
+
+        return documents;
+    }
+
+    void addDescriptionVectors(List<Document> documents) {
+        List<EmbeddingClient.EmbeddingRequest> requests =
+                documents.stream()
+                        .map(document -> new EmbeddingClient.EmbeddingRequest(
+                                "intfloat/multilingual-e5-base",
+                                "passage: " + document.get("description")
+                        ))
+                        .toList();
+
+        List<EmbeddingClient.EmbeddingResponse> responses = embeddingClient.executeAll(requests);
+
+        for (int i = 0; i < documents.size(); i++) {
+            documents.get(i).add(
+                    new KnnFloatVectorField("description_vector", responses.get(i).embedding(), VectorSimilarityFunction.EUCLIDEAN)
+            );
+        }
     }
 
     Document createDocument(String name, String description, String author, int year) {
@@ -137,9 +154,6 @@ class KnnSearchTest {
         document.add(new TextField("author", author, Field.Store.YES));
         document.add(new IntField("year", year, Field.Store.YES));
 
-        float[] vector = textToVector("passage: " + description);
-        document.add(new KnnFloatVectorField("description_vector", vector, VectorSimilarityFunction.EUCLIDEAN));
-
         return document;
     }
 
@@ -240,4 +254,48 @@ class KnnSearchTest {
             }
         }
     }
+
+    @Test
+    void hybridSearch() throws IOException {
+        try (Directory directory = new ByteBuffersDirectory()) {
+            IndexWriterConfig config = new IndexWriterConfig();
+
+            try (IndexWriter writer = new IndexWriter(directory, config)) {
+                writer.addDocuments(createDocuments());
+            }
+
+            try (DirectoryReader reader = DirectoryReader.open(directory);
+                 ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+                HybridSearcher hybridSearcher = new HybridSearcher(searcher, executor);
+
+                Query lexicalQuery = new TermQuery(new Term("description", "alien"));
+
+                float[] vector = textToVector("query: alien invasion");
+                KnnFloatVectorQuery vectorQuery = new KnnFloatVectorQuery("description_vector", vector, 10);
+
+                HybridSearcher.HybridResult result =
+                        hybridSearcher.search(lexicalQuery, vectorQuery, 3, 10, new HybridSearcher.ReciprocalRankFusion());
+
+                List<HybridSearcher.Hit> hits = result.hits();
+                assertThat(hits).hasSize(3);
+
+                // found by both legs
+                assertThat(hits.subList(0, 2))
+                        .extracting(hit -> hit.document().get("name"))
+                        .containsExactlyInAnyOrder("The Hitchhiker's Guide to the Galaxy", "The Three-Body Problem");
+                assertThat(hits.subList(0, 2))
+                        .allMatch(hit -> hit.lexicalRank() > 0 && hit.vectorRank() > 0);
+
+                HybridSearcher.Latency latency = result.latency();
+                System.out.printf(
+                        "lexical = %dus, vector = %dus, fusion = %dus, fetch = %dus%n",
+                        latency.lexicalNanos() / 1000,
+                        latency.vectorNanos() / 1000,
+                        latency.fusionNanos() / 1000,
+                        latency.fetchNanos() / 1000
+                );
+            }
+        }
+    }
 }
@@ -0,0 +1,216 @@
+package org.littlewings.lucene
+
+import org.apache.lucene.search.spell.StringDistance
+
+object BulkLevenshteinDistance {
+  // maxDistanceを超えたため、計算を打ち切った候補の距離
+  val Exceeded: Int = -1
+
+  private val WordSize: Int = 64
+
+  /**
+   * スレッドごとに使い回すバッファ。
+   * peqKeys/peqMasksはクエリのコードポイントから、それが現れる位置のビットマスクを引くオープンアドレスのハッシュ表
+   */
+  private class Buffers {
+    var query: Array[Int] = new Array[Int](WordSize)
+    var peqKeys: Array[Int] = new Array[Int](WordSize * 2)
+    var peqMasks: Array[Long] = new Array[Long](WordSize * 2)
+    var peqUsed: Array[Boolean] = new Array[Boolean](WordSize * 2)
+    var previousRow: Array[Int] = new Array[Int](WordSize + 1)
+    var currentRow: Array[Int] = new Array[Int](WordSize + 1)
+
+    def ensureQuery(length: Int): Unit =
+      if (query.length < length) {
+        query = new Array[Int](length)
+        previousRow = new Array[Int](length + 1)
+        currentRow = new Array[Int](length + 1)
+      }
+  }
+
+  private val buffers: ThreadLocal[Buffers] = new ThreadLocal[Buffers] {
+    override def initialValue: Buffers = new Buffers
+  }
+}
+
+/**
+ * 1つのクエリと多数の候補の編集距離を、まとめて計算する。
+ *
+ * クエリが64コードポイント以下の場合はMyersのビットパラレル法で、1文字あたりLong数回の演算で1列を更新する。
+ * それより長い場合は、2行分の配列を使い回す動的計画法にする。
+ * 距離がmaxDistanceを超えることが確定した候補は、その時点で打ち切ってBulkLevenshteinDistance.Exceededとする。
+ *
+ * 類似度(getDistance、similarities)はLevensteinDistanceと同じく、1 - 距離 / 長い方の長さ
+ */
+class BulkLevenshteinDistance(val maxDistance: Int = Int.MaxValue) extends StringDistance {
+  import BulkLevenshteinDistance._
+
+  require(maxDistance >= 0, "maxDistance must be >= 0")
+
+  def distances(query: String, candidates: Array[String]): Array[Int] = {
+    val results = new Array[Int](candidates.length)
+    val b = prepare(query)
+    val m = query.codePointCount(0, query.length)
+
+    var i = 0
+    while (i < candidates.length) {
+      results(i) = distance(b, m, candidates(i))
+      i += 1
+    }
+
+    results
+  }
+
+  def similarities(query: String, candidates: Array[String]): Array[Float] = {
+    val results = new Array[Float](candidates.length)
+    val b = prepare(query)
+    val m = query.codePointCount(0, query.length)
+
+    var i = 0
+    while (i < candidates.length) {
+      val candidate = candidates(i)
+      results(i) = similarity(distance(b, m, candidate), m, candidate.codePointCount(0, candidate.length))
+      i += 1
+    }
+
+    results
+  }
+
+  override def getDistance(s1: String, s2: String): Float =
+    similarities(s1, Array(s2))(0)
+
+  private def similarity(d: Int, m: Int, n: Int): Float =
+    if (d == Exceeded) 0.0F
+    else if (m == 0 && n == 0) 1.0F
+    else 1.0F - d.toFloat / math.max(m, n)
+
+  private def prepare(query: String): Buffers = {
+    val b = buffers.get
+    val m = query.codePointCount(0, query.length)
+    b.ensureQuery(m)
+
+    var i = 0
+    var offset = 0
+    while (offset < query.length) {
+      val cp = query.codePointAt(offset)
+      b.query(i) = cp
+      i += 1
+      offset += Character.charCount(cp)
+    }
+
+    if (m <= WordSize) {
+      java.util.Arrays.fill(b.peqUsed, false)
+      var j = 0
+      while (j < m) {
+        val slot = findSlot(b, b.query(j))
+        b.peqUsed(slot) = true
+        b.peqKeys(slot) = b.query(j)
+        b.peqMasks(slot) |= 1L << j
+        j += 1
+      }
+    }
+
+    b
+  }
+
+  private def findSlot(b: Buffers, cp: Int): Int = {
+    val mask = b.peqKeys.length - 1
+    var slot = (cp * 0x9E3779B9) >>> 16 & mask
+    while (b.peqUsed(slot) && b.peqKeys(slot) != cp) {
+      slot = (slot + 1) & mask
+    }
+    if (!b.peqUsed(slot)) b.peqMasks(slot) = 0L
+    slot
+  }
+
+  private def peq(b: Buffers, cp: Int): Long = {
+    val slot = findSlot(b, cp)
+    if (b.peqUsed(slot)) b.peqMasks(slot) else 0L
+  }
+
+  private def distance(b: Buffers, m: Int, candidate: String): Int = {
+    val n = candidate.codePointCount(0, candidate.length)
+
+    if (math.abs(m - n) > maxDistance) Exceeded
+    else if (m == 0) n
+    else if (n == 0) m
+    else if (m <= WordSize) myers(b, m, candidate, n)
+    else dynamicProgramming(b, m, candidate, n)
+  }
+
+  private def myers(b: Buffers, m: Int, candidate: String, n: Int): Int = {
+    val last = 1L << (m - 1)
+    var pv = -1L
+    var mv = 0L
+    var score = m
+
+    var j = 0
+    var offset = 0
+    while (offset < candidate.length) {
+      val cp = candidate.codePointAt(offset)
+      val eq = peq(b, cp)
+
+      val xv = eq | mv
+      val xh = (((eq & pv) + pv) ^ pv) | eq
+      var ph = mv | ~(xh | pv)
+      var mh = pv & xh
+
+      if ((ph & last) != 0L) score += 1
+      else if ((mh & last) != 0L) score -= 1
+
+      // 0行目は1列ごとに1ずつ増えるので、1をシフトインする
+      ph = (ph << 1) | 1L
+      mh = mh << 1
+      pv = mh | ~(xv | ph)
+      mv = ph & xv
+
+      j += 1
+      offset += Character.charCount(cp)
+
+      // 残りの文字がすべて一致しても、maxDistance以下にならない
+      if (score - (n - j) > maxDistance) return Exceeded
+    }
+
+    if (score > maxDistance) Exceeded else score
+  }
+
+  private def dynamicProgramming(b: Buffers, m: Int, candidate: String, n: Int): Int = {
+    var previous = b.previousRow
+    var current = b.currentRow
+
+    var i = 0
+    while (i <= m) {
+      previous(i) = i
+      i += 1
+    }
+
+    var j = 1
+    var offset = 0
+    while (offset < candidate.length) {
+      val cp = candidate.codePointAt(offset)
+      current(0) = j
+      var rowMin = j
+
+      i = 1
+      while (i <= m) {
+        val cost = if (b.query(i - 1) == cp) 0 else 1
+        val d = math.min(math.min(current(i - 1) + 1, previous(i) + 1), previous(i - 1) + cost)
+        current(i) = d
+        if (d < rowMin) rowMin = d
+        i += 1
+      }
+
+      if (rowMin > maxDistance) return Exceeded
+
+      val swap = previous
+      previous = current
+      current = swap
+
+      j += 1
+      offset += Character.charCount(cp)
+    }
+
+    val d = previous(m)
+    if (d > maxDistance) Exceeded else d
+  }
+}
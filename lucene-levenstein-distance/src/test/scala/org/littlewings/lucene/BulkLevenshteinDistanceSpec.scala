@@ -0,0 +1,71 @@
+package org.littlewings.lucene
+
+import scala.util.Random
+
+import org.apache.lucene.search.spell.LevensteinDistance
+import org.scalatest.FunSpec
+import org.scalatest.Matchers._
+
+class BulkLevenshteinDistanceSpec extends FunSpec {
+  def editDistance(s1: String, s2: String): Int = {
+    val a = s1.codePoints.toArray
+    val b = s2.codePoints.toArray
+    val d = Array.tabulate(a.length + 1, b.length + 1)((i, j) => if (i == 0) j else if (j == 0) i else 0)
+    for (i <- 1 to a.length; j <- 1 to b.length) {
+      d(i)(j) = Seq(d(i - 1)(j) + 1, d(i)(j - 1) + 1, d(i - 1)(j - 1) + (if (a(i - 1) == b(j - 1)) 0 else 1)).min
+    }
+    d(a.length)(b.length)
+  }
+
+  describe("Bulk Levenshtein Distance Spec") {
+    it("same similarity as LevensteinDistance") {
+      val levensteinDistance = new LevensteinDistance
+      val bulkDistance = new BulkLevenshteinDistance
+
+      val pairs = Seq(
+        ("java", "java"), ("java", "javo"), ("java", "jajo"), ("java", "jojo"), ("java", "jovo"),
+        ("磯野カツオ", "磯野カツオ"), ("磯野カツオ", "磯野カツヲ"), ("磯野カツオ", "磯野カケヲ"), ("磯野カツオ", "海野カケヲ"),
+        ("Saturday", "Sunday"), ("Solr", "Solar"), ("Apache Solr", "Apache Lucene"), ("Apache Hadoop", "Apache Hadoop"),
+        ("ABC", "XYZ")
+      )
+
+      pairs.foreach { case (s1, s2) =>
+        bulkDistance.getDistance(s1, s2) should be (levensteinDistance.getDistance(s1, s2))
+      }
+    }
+
+    it("one query, many candidates") {
+      val bulkDistance = new BulkLevenshteinDistance
+
+      bulkDistance.distances("java", Array("java", "javo", "jojo", "", "javascript", "ajva")) should be (Array(0, 1, 2, 4, 6, 2))
+      bulkDistance.distances("", Array("", "java")) should be (Array(0, 4))
+      bulkDistance.similarities("Saturday", Array("Sunday", "Saturday")) should be (Array(0.625F, 1.0F))
+    }
+
+    it("cut off at max distance") {
+      val bulkDistance = new BulkLevenshteinDistance(2)
+
+      bulkDistance.distances("java", Array("java", "javo", "jojo", "jojojo", "scala", "javascript")) should be (
+        Array(0, 1, 2, BulkLevenshteinDistance.Exceeded, BulkLevenshteinDistance.Exceeded, BulkLevenshteinDistance.Exceeded))
+      bulkDistance.similarities("java", Array("jojo", "scala")) should be (Array(0.5F, 0.0F))
+    }
+
+    it("same distance as dynamic programming, short and long queries") {
+      val random = new Random(42L)
+      // サロゲートペアも混ぜる
+      val alphabet = Array("a", "b", "c", "d", "あ", "い", "う", "𠮷")
+      def randomString(length: Int): String = Seq.fill(length)(alphabet(random.nextInt(alphabet.length))).mkString
+
+      Seq(1, 10, 63, 64, 65, 100).foreach { queryLength =>
+        val query = randomString(queryLength)
+        val candidates = Array.fill(50)(randomString(random.nextInt(queryLength * 2)))
+
+        new BulkLevenshteinDistance().distances(query, candidates) should be (candidates.map(c => editDistance(query, c)))
+
+        val maxDistance = queryLength / 4
+        new BulkLevenshteinDistance(maxDistance).distances(query, candidates) should be (
+          candidates.map(c => editDistance(query, c)).map(d => if (d > maxDistance) BulkLevenshteinDistance.Exceeded else d))
+      }
+    }
+  }
+}
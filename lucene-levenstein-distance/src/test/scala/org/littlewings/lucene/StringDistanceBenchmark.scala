@@ -0,0 +1,77 @@
+package org.littlewings.lucene
+
+import java.util.concurrent.TimeUnit
+
+import scala.util.Random
+
+import org.apache.lucene.search.spell.{JaroWinklerDistance, LevensteinDistance, LuceneLevenshteinDistance, NGramDistance, StringDistance}
+import org.openjdk.jmh.annotations._
+
+/**
+ * sbt "jmh:run -i 5 -wi 3 -f 1 StringDistanceBenchmark"
+ *
+ * 1つのクエリとnumCandidates個の候補の類似度を、既存のStringDistanceで1組ずつ計算する場合と、
+ * BulkLevenshteinDistanceでまとめて計算する場合を比較する
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+class StringDistanceBenchmark {
+  @Param(Array("1000", "10000"))
+  var numCandidates: Int = _
+
+  @Param(Array("8", "32"))
+  var queryLength: Int = _
+
+  var query: String = _
+  var candidates: Array[String] = _
+
+  val levensteinDistance: StringDistance = new LevensteinDistance
+  val luceneLevenshteinDistance: StringDistance = new LuceneLevenshteinDistance
+  val jaroWinklerDistance: StringDistance = new JaroWinklerDistance
+  val nGramDistance: StringDistance = new NGramDistance
+
+  val bulkDistance: BulkLevenshteinDistance = new BulkLevenshteinDistance
+  val bulkDistanceWithCutOff: BulkLevenshteinDistance = new BulkLevenshteinDistance(2)
+
+  @Setup
+  def setUp(): Unit = {
+    val random = new Random(42L)
+    def randomString(length: Int): String = random.alphanumeric.filter(_.isLower).take(length).mkString
+
+    query = randomString(queryLength)
+    // 半分はクエリに近い候補にする
+    candidates = Array.tabulate(numCandidates) { i =>
+      if (i % 2 == 0) query.updated(random.nextInt(queryLength), 'x') + randomString(random.nextInt(3))
+      else randomString(queryLength / 2 + random.nextInt(queryLength))
+    }
+  }
+
+  private def pairwise(distance: StringDistance): Array[Float] = {
+    val results = new Array[Float](candidates.length)
+    var i = 0
+    while (i < candidates.length) {
+      results(i) = distance.getDistance(query, candidates(i))
+      i += 1
+    }
+    results
+  }
+
+  @Benchmark
+  def levenstein: Array[Float] = pairwise(levensteinDistance)
+
+  @Benchmark
+  def luceneLevenshtein: Array[Float] = pairwise(luceneLevenshteinDistance)
+
+  @Benchmark
+  def jaroWinkler: Array[Float] = pairwise(jaroWinklerDistance)
+
+  @Benchmark
+  def nGram: Array[Float] = pairwise(nGramDistance)
+
+  @Benchmark
+  def bulkLevenshtein: Array[Float] = bulkDistance.similarities(query, candidates)
+
+  @Benchmark
+  def bulkLevenshteinWithCutOff: Array[Float] = bulkDistanceWithCutOff.similarities(query, candidates)
+}
@@ -2,12 +2,12 @@ import scala.collection.JavaConverters._
 
 import org.apache.lucene.analysis.Analyzer
 import org.apache.lucene.analysis.ja.JapaneseAnalyzer
-import org.apache.lucene.document.{Document, Field, StringField, TextField}
+import org.apache.lucene.document.{Document, Field, SortedDocValuesField, StringField, TextField}
 import org.apache.lucene.index.{DirectoryReader, IndexWriter, IndexWriterConfig}
 import org.apache.lucene.search.{IndexSearcher, Query, MatchAllDocsQuery, SearcherFactory, SearcherManager, Sort}
 import org.apache.lucene.search.{TopFieldCollector, TotalHitCountCollector}
 import org.apache.lucene.store.{Directory, RAMDirectory}
-import org.apache.lucene.util.Version
+import org.apache.lucene.util.{BytesRef, Version}
 
 object LuceneSearcherManager {
   private var currentId: Int = 1
@@ -31,8 +31,13 @@ object LuceneSearcherManager {
   }
 
   private def commandWhile(directory: Directory, writer: IndexWriter): Unit = {
-    val searcherManager = new SearcherManager(writer, true, new SearcherFactory)
     //val searcherManager = new SearcherManager(directory, new SearcherFactory)
+    val scheduler = new NrtRefreshScheduler(writer,
+                                            5.0,
+                                            0.1,
+                                            new WarmingSearcherFactory(Seq("id_sort"), Seq(new MatchAllDocsQuery)))
+    val searcherManager = scheduler.searcherManager
+    var lastGeneration = 0L
 
     Iterator
       .continually(readLine("Command> "))
@@ -40,8 +45,13 @@ object LuceneSearcherManager {
       .takeWhile(_ != "exit")
       .foreach {
         case "add" =>
-          registerDocument(writer)
-          println(s"Ducument added[${currentId - 1}]")
+          lastGeneration = registerDocument(scheduler)
+          println(s"Ducument added[${currentId - 1}], generation[$lastGeneration]")
+        case "wait" =>
+          scheduler.waitForGeneration(lastGeneration)
+          println(s"Generation[$lastGeneration] is searchable.")
+        case "stats" =>
+          println(scheduler.metrics)
         case "search" =>
           val searcher = searcherManager.acquire
 
@@ -78,17 +88,27 @@ object LuceneSearcherManager {
           println("SearcherManager maybeRefreshed.")
         case command => println(s"Unknown Command, [$command]")
       }
+
+    scheduler.close()
   }
 
-  private def registerDocument(writer: IndexWriter): Unit = {
+  private def createDocument(): Document = {
     val document = new Document
     document.add(new StringField("id", currentId.toString, Field.Store.YES))
+    document.add(new SortedDocValuesField("id_sort", new BytesRef(currentId.toString)))
     document.add(new StringField("contents", "contents-%s".format(currentId), Field.Store.YES))
-    writer.addDocument(document)
 
     currentId += 1
+
+    document
   }
 
+  private def registerDocument(writer: IndexWriter): Unit =
+    writer.addDocument(createDocument())
+
+  private def registerDocument(scheduler: NrtRefreshScheduler): Long =
+    scheduler.addDocument(createDocument())
+
   implicit class AutoCloseableWrapper[A <: AutoCloseable](val underlying: A) extends AnyVal {
     def foreach(fun: A => Unit): Unit =
       try {
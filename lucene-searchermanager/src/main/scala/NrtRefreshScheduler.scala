@@ -0,0 +1,128 @@
+import scala.collection.JavaConverters._
+
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+import org.apache.lucene.document.Document
+import org.apache.lucene.index.{FieldInfo, IndexReader, IndexWriter, Term, TrackingIndexWriter}
+import org.apache.lucene.search.{ControlledRealTimeReopenThread, IndexSearcher, Query, ReferenceManager, SearcherFactory, SearcherManager}
+
+class NrtRefreshScheduler(writer: IndexWriter,
+                          targetMaxStaleSec: Double,
+                          targetMinStaleSec: Double,
+                          searcherFactory: SearcherFactory) extends AutoCloseable {
+  val trackingWriter: TrackingIndexWriter = new TrackingIndexWriter(writer)
+  val searcherManager: SearcherManager = new SearcherManager(writer, true, searcherFactory)
+  val metrics: RefreshMetrics = new RefreshMetrics
+
+  searcherManager.addListener(metrics)
+
+  // refreshes every targetMaxStaleSec, or within targetMinStaleSec while someone waits for a generation
+  private val reopenThread =
+    new ControlledRealTimeReopenThread(trackingWriter, searcherManager, targetMaxStaleSec, targetMinStaleSec)
+  reopenThread.setName("NRT Reopen Thread")
+  reopenThread.setDaemon(true)
+  reopenThread.start()
+
+  def addDocument(document: Document): Long =
+    trackingWriter.addDocument(document)
+
+  def updateDocument(term: Term, document: Document): Long =
+    trackingWriter.updateDocument(term, document)
+
+  def deleteDocuments(term: Term): Long =
+    trackingWriter.deleteDocuments(term)
+
+  def waitForGeneration(generation: Long): Unit =
+    reopenThread.waitForGeneration(generation)
+
+  def waitForGeneration(generation: Long, maxMillis: Int): Boolean =
+    reopenThread.waitForGeneration(generation, maxMillis)
+
+  def withSearcher[A](fun: IndexSearcher => A): A = {
+    val searcher = searcherManager.acquire
+    try {
+      fun(searcher)
+    } finally {
+      searcherManager.release(searcher)
+    }
+  }
+
+  // "read your own write"
+  def withSearcherAfter[A](generation: Long)(fun: IndexSearcher => A): A = {
+    waitForGeneration(generation)
+    withSearcher(fun)
+  }
+
+  override def close(): Unit = {
+    reopenThread.close()
+    searcherManager.close()
+  }
+}
+
+class RefreshMetrics extends ReferenceManager.RefreshListener {
+  private val refreshCount = new AtomicLong
+  private val totalRefreshNanos = new AtomicLong
+  private val maxRefreshNanos = new AtomicLong
+  private val lastSearcherChangeNanos = new AtomicLong(System.nanoTime)
+
+  @volatile private var refreshStartNanos: Long = 0L
+
+  override def beforeRefresh(): Unit =
+    refreshStartNanos = System.nanoTime
+
+  override def afterRefresh(didRefresh: Boolean): Unit = {
+    val now = System.nanoTime
+    val elapsed = now - refreshStartNanos
+
+    refreshCount.incrementAndGet()
+    totalRefreshNanos.addAndGet(elapsed)
+
+    var max = maxRefreshNanos.get
+    while (elapsed > max && !maxRefreshNanos.compareAndSet(max, elapsed)) {
+      max = maxRefreshNanos.get
+    }
+
+    if (didRefresh) {
+      lastSearcherChangeNanos.set(now)
+    }
+  }
+
+  def count: Long = refreshCount.get
+
+  def averageRefreshMillis: Double =
+    if (count == 0L) 0.0 else totalRefreshNanos.get.toDouble / count / 1000000
+
+  def maxRefreshMillis: Double = maxRefreshNanos.get.toDouble / 1000000
+
+  // how old the current searcher's point in time is
+  def searcherAgeMillis: Long =
+    TimeUnit.NANOSECONDS.toMillis(System.nanoTime - lastSearcherChangeNanos.get)
+
+  override def toString: String =
+    f"refreshes = $count, avg = $averageRefreshMillis%.2f ms, max = $maxRefreshMillis%.2f ms, searcher age = $searcherAgeMillis ms"
+}
+
+class WarmingSearcherFactory(docValuesFields: Seq[String], warmUpQueries: Seq[Query]) extends SearcherFactory {
+  override def newSearcher(reader: IndexReader): IndexSearcher = {
+    val searcher = new IndexSearcher(reader)
+
+    for {
+      context <- reader.leaves.asScala
+      field <- docValuesFields
+      fieldInfo <- Option(context.reader.getFieldInfos.fieldInfo(field))
+      if fieldInfo.hasDocValues
+    } {
+      fieldInfo.getDocValuesType match {
+        case FieldInfo.DocValuesType.NUMERIC => context.reader.getNumericDocValues(field)
+        case FieldInfo.DocValuesType.BINARY => context.reader.getBinaryDocValues(field)
+        case FieldInfo.DocValuesType.SORTED => context.reader.getSortedDocValues(field)
+        case FieldInfo.DocValuesType.SORTED_SET => context.reader.getSortedSetDocValues(field)
+      }
+    }
+
+    warmUpQueries.foreach(query => searcher.search(query, 10))
+
+    searcher
+  }
+}
@@ -0,0 +1,56 @@
+import org.apache.lucene.analysis.Analyzer
+import org.apache.lucene.index.{IndexWriterConfig, TieredMergePolicy}
+import org.apache.lucene.index.sorter.{EarlyTerminatingSortingCollector, NumericDocValuesSorter, SortingMergePolicy}
+import org.apache.lucene.search.{IndexSearcher, Query, Sort, SortField, TopDocs, TopFieldCollector}
+import org.apache.lucene.util.Version
+
+/**
+ * インデックスソート。NumericDocValuesのフィールドで昇順にソートされたセグメントを作り、
+ * クエリのソートがインデックスのソートのプレフィックスの場合は、各セグメントでn件集めたところで収集を打ち切る
+ *
+ * Lucene 4.3ではIndexWriterConfig#setIndexSortはなく、マージ時にソートするSortingMergePolicyを使う。
+ * そのため、ソートされるのはマージされたセグメントのみで、フラッシュ直後のセグメントは全件収集になる
+ */
+class IndexSorting(val field: String) {
+  val sorter: NumericDocValuesSorter = new NumericDocValuesSorter(field)
+
+  // NumericDocValuesSorterは昇順のみ
+  val indexSort: Sort = new Sort(new SortField(field, SortField.Type.LONG))
+
+  def configure(config: IndexWriterConfig): IndexWriterConfig =
+    config.setMergePolicy(new SortingMergePolicy(new TieredMergePolicy, sorter))
+
+  def indexWriterConfig(luceneVersion: Version, analyzer: Analyzer): IndexWriterConfig =
+    configure(new IndexWriterConfig(luceneVersion, analyzer))
+
+  def canEarlyTerminate(sort: Sort): Boolean = {
+    val sortFields = sort.getSort
+    val indexSortFields = indexSort.getSort
+
+    sortFields.size <= indexSortFields.size &&
+      sortFields.zip(indexSortFields).forall { case (s, i) =>
+        s.getField == i.getField && s.getType == i.getType && s.getReverse == i.getReverse
+      }
+  }
+
+  /**
+   * 早期終了した場合、TopDocs#totalHitsは実際のヒット件数より少なくなる
+   */
+  def search(searcher: IndexSearcher, query: Query, n: Int, sort: Sort): TopDocs = {
+    val topFieldCollector =
+      TopFieldCollector.create(sort,
+                               n,
+                               true,  // fillFields
+                               false,  // trackDocScores
+                               false,  // trackMaxScore
+                               false)  // docScoredInOrder
+
+    if (canEarlyTerminate(sort)) {
+      searcher.search(query, new EarlyTerminatingSortingCollector(topFieldCollector, sorter, n))
+    } else {
+      searcher.search(query, topFieldCollector)
+    }
+
+    topFieldCollector.topDocs
+  }
+}
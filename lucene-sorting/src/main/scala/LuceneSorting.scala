@@ -1,7 +1,7 @@
 import scala.collection.JavaConverters._
 
 import org.apache.lucene.analysis.ja.JapaneseAnalyzer
-import org.apache.lucene.document.{Document, Field, StringField, TextField}
+import org.apache.lucene.document.{Document, Field, NumericDocValuesField, StringField, TextField}
 import org.apache.lucene.index.{DirectoryReader, IndexWriter, IndexWriterConfig}
 import org.apache.lucene.queryparser.classic.QueryParser
 import org.apache.lucene.search.{IndexSearcher, Query, Sort, SortField, TopDocs}
@@ -92,6 +92,37 @@ object LuceneSorting {
                                                                  SortField.Type.STRING))))
       }
     }
+
+    println("インデックスソート")
+    val indexSorting = new IndexSorting("num1_dv")
+
+    for (directory <- new RAMDirectory) {
+      new IndexWriter(directory, indexSorting.indexWriterConfig(luceneVersion, new JapaneseAnalyzer(luceneVersion))).foreach { writer =>
+        SampleDocument.createDocs.foreach(writer.addDocument)
+        // ソートされるのはマージ時
+        writer.forceMerge(1)
+      }
+
+      for (reader <- DirectoryReader.open(directory)) {
+        val searcher = new IndexSearcher(reader)
+        val query = createQuery("contents:ドキュメント OR contents:1 OR contents: 0", luceneVersion)
+
+        printSearchResult(searcher,
+                          "Sort.INDEXORDER(sorted by num1_dv)",
+                          searcher.search(query, 20, Sort.INDEXORDER))
+        printSearchResult(searcher,
+                          "Sort(num1_dv as LONG, early terminated)",
+                          indexSorting.search(searcher, query, 3, indexSorting.indexSort))
+        printSearchResult(searcher,
+                          "Sort(num1_dv as LONG#reverse, not early terminated)",
+                          indexSorting.search(searcher,
+                                              query,
+                                              3,
+                                              new Sort(new SortField("num1_dv",
+                                                                     SortField.Type.LONG,
+                                                                     true))))
+      }
+    }
   }
 
   private def createIndex(directory: Directory, luceneVersion: Version): Unit = {
@@ -156,6 +187,8 @@ object SampleDocument {
     doc.add(stringField("num2", tokens(1)))
     doc.add(stringField("join-nums", tokens(2)))
     doc.add(textField("contents", tokens(3)))
+    doc.add(new NumericDocValuesField("num1_dv", tokens(0).toLong))
+    doc.add(new NumericDocValuesField("num2_dv", tokens(1).toLong))
     doc
   }
 
@@ -0,0 +1,96 @@
+import java.nio.file.Files
+import java.util.concurrent.TimeUnit
+
+import scala.util.Random
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer
+import org.apache.lucene.document.{Document, Field, NumericDocValuesField, StringField}
+import org.apache.lucene.index.{DirectoryReader, IndexWriter, Term}
+import org.apache.lucene.search.{IndexSearcher, MatchAllDocsQuery, Query, TermQuery, TopDocs, TopFieldCollector}
+import org.apache.lucene.store.{Directory, FSDirectory}
+import org.apache.lucene.util.Version
+
+import org.openjdk.jmh.annotations._
+
+/**
+ * sbt "jmh:run -i 5 -wi 3 -f 1 SortingBenchmark"
+ *
+ * 同じソート済みインデックスに対して、全件収集してのソート(fullSort)と、インデックスソートでの早期終了(earlyTerminated)を比較する
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+class SortingBenchmark {
+  @Param(Array("1000000", "5000000"))
+  var numDocs: Int = _
+
+  @Param(Array("matchAll", "term"))
+  var queryType: String = _
+
+  @Param(Array("10", "100"))
+  var k: Int = _
+
+  val indexSorting: IndexSorting = new IndexSorting("price")
+
+  var path: java.nio.file.Path = _
+  var directory: Directory = _
+  var reader: DirectoryReader = _
+  var searcher: IndexSearcher = _
+  var query: Query = _
+
+  @Setup
+  def setUp(): Unit = {
+    val random = new Random(42L)
+    path = Files.createTempDirectory("sorting-benchmark")
+    directory = FSDirectory.open(path.toFile)
+
+    val config =
+      indexSorting
+        .indexWriterConfig(Version.LUCENE_43, new KeywordAnalyzer)
+        .setRAMBufferSizeMB(256)
+
+    val writer = new IndexWriter(directory, config)
+    (1 to numDocs).foreach { _ =>
+      val document = new Document
+      document.add(new StringField("category", s"category-${random.nextInt(10)}", Field.Store.NO))
+      document.add(new NumericDocValuesField("price", random.nextInt(1000000).toLong))
+      writer.addDocument(document)
+    }
+    // SortingMergePolicyでソートされるのはマージされたセグメント
+    writer.forceMerge(1)
+    writer.close()
+
+    reader = DirectoryReader.open(directory)
+    searcher = new IndexSearcher(reader)
+
+    query = queryType match {
+      case "matchAll" => new MatchAllDocsQuery
+      case "term" => new TermQuery(new Term("category", "category-3"))
+    }
+  }
+
+  @TearDown
+  def tearDown(): Unit = {
+    reader.close()
+    directory.close()
+    path.toFile.listFiles.foreach(_.delete())
+    path.toFile.delete()
+  }
+
+  @Benchmark
+  def fullSort: TopDocs = {
+    val collector =
+      TopFieldCollector.create(indexSorting.indexSort,
+                               k,
+                               true,  // fillFields
+                               false,  // trackDocScores
+                               false,  // trackMaxScore
+                               false)  // docScoredInOrder
+    searcher.search(query, collector)
+    collector.topDocs
+  }
+
+  @Benchmark
+  def earlyTerminated: TopDocs =
+    indexSorting.search(searcher, query, k, indexSorting.indexSort)
+}
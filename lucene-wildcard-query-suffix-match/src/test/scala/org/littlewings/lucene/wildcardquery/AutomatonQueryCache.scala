@@ -0,0 +1,101 @@
+package org.littlewings.lucene.wildcardquery
+
+import java.util.concurrent.atomic.AtomicLong
+
+import org.apache.lucene.index.Term
+import org.apache.lucene.search.{AutomatonQuery, FuzzyQuery, MultiTermQuery, Query, WildcardQuery}
+import org.apache.lucene.util.automaton.LevenshteinAutomata
+
+object AutomatonQueryCache {
+  // WildcardQueryのキーは、maxEditsを-1とする
+  val WildcardMaxEdits: Int = -1
+
+  case class Key(field: String, pattern: String, maxEdits: Int, transpositions: Boolean)
+
+  case class Stats(hits: Long, misses: Long, evictions: Long, size: Int) {
+    def requests: Long = hits + misses
+
+    def hitRate: Double = if (requests == 0L) 0.0 else hits.toDouble / requests
+
+    override def toString: String =
+      f"hits = $hits, misses = $misses, evictions = $evictions, size = $size, hitRate = ${hitRate * 100}%.2f%%"
+  }
+
+  def compileWildcard(term: Term): AutomatonQuery =
+    new WildcardQuery(term)
+
+  /**
+   * FuzzyQueryはrewriteのたびにFuzzyTermsEnumの中でLevenshteinAutomataを作り直すため、
+   * 同じオートマトンのAutomatonQueryにする。
+   *
+   * FuzzyQueryの置き換えではない。マッチする語の集合はprefixLength = 0のFuzzyQueryと同じで、
+   * 展開する語の数とdocFreqを揃えるrewriteもFuzzyQueryと同じだが、FuzzyTermsEnumが付ける
+   * 編集距離に応じたブーストがないので、1文字違いの語と2文字違いの語が同じ重みでスコアされる。
+   * また、先頭の一致を強制するprefixLengthには対応しない
+   */
+  def compileFuzzy(term: Term, maxEdits: Int, transpositions: Boolean): AutomatonQuery = {
+    require(maxEdits >= 0 && maxEdits <= LevenshteinAutomata.MAXIMUM_SUPPORTED_DISTANCE,
+            s"maxEdits must be between 0 and ${LevenshteinAutomata.MAXIMUM_SUPPORTED_DISTANCE}")
+
+    val query = new AutomatonQuery(term, new LevenshteinAutomata(term.text, transpositions).toAutomaton(maxEdits))
+    query.setRewriteMethod(new MultiTermQuery.TopTermsBlendedFreqScoringRewrite(FuzzyQuery.defaultMaxExpansions))
+    query
+  }
+}
+
+/**
+ * コンパイル済みのオートマトンを持つAutomatonQueryを、(field, pattern, maxEdits, transpositions)をキーに
+ * maxSize個までLRUで保持する。返すのはcloneなので、呼び出し側でブーストなどを変更してもキャッシュには影響しない。
+ * fuzzyQueryのスコアはFuzzyQueryと異なる(compileFuzzyを参照)
+ */
+class AutomatonQueryCache(maxSize: Int) {
+  import AutomatonQueryCache._
+
+  private val hits: AtomicLong = new AtomicLong
+  private val misses: AtomicLong = new AtomicLong
+  private val evictions: AtomicLong = new AtomicLong
+
+  private val cache = new java.util.LinkedHashMap[Key, AutomatonQuery](16, 0.75F, true) {
+    override def removeEldestEntry(eldest: java.util.Map.Entry[Key, AutomatonQuery]): Boolean = {
+      val remove = size > maxSize
+      if (remove) evictions.incrementAndGet()
+      remove
+    }
+  }
+
+  def wildcardQuery(term: Term): Query =
+    getOrCompile(Key(term.field, term.text, WildcardMaxEdits, false))(compileWildcard(term))
+
+  def fuzzyQuery(term: Term, maxEdits: Int, transpositions: Boolean = true): Query =
+    getOrCompile(Key(term.field, term.text, maxEdits, transpositions))(compileFuzzy(term, maxEdits, transpositions))
+
+  def stats: Stats =
+    Stats(hits.get, misses.get, evictions.get, cache.synchronized(cache.size))
+
+  def clear(): Unit = cache.synchronized(cache.clear())
+
+  private def getOrCompile(key: Key)(compile: => AutomatonQuery): Query = {
+    val cached = cache.synchronized(cache.get(key))
+
+    val prototype =
+      if (cached != null) {
+        hits.incrementAndGet()
+        cached
+      } else {
+        misses.incrementAndGet()
+        // コンパイルはロックの外で行い、同じキーが同時にコンパイルされた場合は先に登録された方を使う
+        val compiled = compile
+        cache.synchronized {
+          val existing = cache.get(key)
+          if (existing != null) {
+            existing
+          } else {
+            cache.put(key, compiled)
+            compiled
+          }
+        }
+      }
+
+    prototype.clone
+  }
+}
@@ -0,0 +1,123 @@
+package org.littlewings.lucene.wildcardquery
+
+import java.util.concurrent.TimeUnit
+
+import scala.util.Random
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer
+import org.apache.lucene.document.{Document, StringField}
+import org.apache.lucene.document.Field.Store
+import org.apache.lucene.index.{DirectoryReader, IndexWriter, IndexWriterConfig, Term}
+import org.apache.lucene.search.{FuzzyQuery, Query, WildcardQuery}
+import org.apache.lucene.store.RAMDirectory
+import org.openjdk.jmh.annotations._
+
+/**
+ * sbt "jmh:run -i 5 -wi 3 -f 1 AutomatonQueryCacheBenchmark"
+ *
+ * Zipf分布で偏ったクエリの並びに対して、毎回クエリを作ってrewriteする場合と、
+ * AutomatonQueryCacheを通してrewriteする場合を比較する。
+ * fuzzyのuncachedはFuzzyQuery、uncachedAutomatonとcachedは編集距離のブーストがないAutomatonQueryなので、
+ * キャッシュの効果はuncachedAutomatonとcachedの差で見る
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+class AutomatonQueryCacheBenchmark {
+  @Param(Array("fuzzy", "wildcard"))
+  var queryType: String = _
+
+  @Param(Array("1.0", "1.2"))
+  var zipfExponent: Double = _
+
+  val numTerms: Int = 100000
+  val numPatterns: Int = 1000
+  val mixSize: Int = 10000
+
+  var directory: RAMDirectory = _
+  var reader: DirectoryReader = _
+
+  var cache: AutomatonQueryCache = _
+  var mix: Array[Term] = _
+  var index: Int = 0
+
+  @Setup
+  def setUp(): Unit = {
+    val random = new Random(42L)
+    directory = new RAMDirectory
+
+    val words = Array.fill(numTerms)(random.alphanumeric.filter(_.isLower).take(5 + random.nextInt(6)).mkString)
+
+    val writer = new IndexWriter(directory, new IndexWriterConfig(new KeywordAnalyzer))
+    words.foreach { word =>
+      val document = new Document
+      document.add(new StringField("word", word, Store.NO))
+      writer.addDocument(document)
+    }
+    writer.forceMerge(1)
+    writer.close()
+
+    reader = DirectoryReader.open(directory)
+    cache = new AutomatonQueryCache(numPatterns / 2)
+
+    val patterns = Array.fill(numPatterns) {
+      val word = words(random.nextInt(numTerms))
+      queryType match {
+        case "fuzzy" => new Term("word", word.updated(random.nextInt(word.length), 'x'))
+        case "wildcard" => new Term("word", word.take(2) + "*" + word.takeRight(2))
+      }
+    }
+
+    // 順位kのパターンが選ばれる確率は1 / k^s に比例する
+    val weights = (1 to numPatterns).map(k => 1.0 / math.pow(k, zipfExponent))
+    val total = weights.sum
+    val cumulative = weights.scanLeft(0.0)(_ + _).tail.map(_ / total).toArray
+    mix = Array.fill(mixSize) {
+      val i = java.util.Arrays.binarySearch(cumulative, random.nextDouble)
+      patterns(math.min(if (i >= 0) i else -i - 1, numPatterns - 1))
+    }
+  }
+
+  @TearDown
+  def tearDown(): Unit = {
+    println()
+    println(s"AutomatonQueryCache: ${cache.stats}")
+    reader.close()
+    directory.close()
+  }
+
+  private def nextTerm(): Term = {
+    index = (index + 1) % mix.length
+    mix(index)
+  }
+
+  @Benchmark
+  def uncached: Query = {
+    val term = nextTerm()
+    val query = queryType match {
+      case "fuzzy" => new FuzzyQuery(term, 2)
+      case "wildcard" => new WildcardQuery(term)
+    }
+    query.rewrite(reader)
+  }
+
+  @Benchmark
+  def uncachedAutomaton: Query = {
+    val term = nextTerm()
+    val query = queryType match {
+      case "fuzzy" => AutomatonQueryCache.compileFuzzy(term, 2, true)
+      case "wildcard" => AutomatonQueryCache.compileWildcard(term)
+    }
+    query.rewrite(reader)
+  }
+
+  @Benchmark
+  def cached: Query = {
+    val term = nextTerm()
+    val query = queryType match {
+      case "fuzzy" => cache.fuzzyQuery(term, 2)
+      case "wildcard" => cache.wildcardQuery(term)
+    }
+    query.rewrite(reader)
+  }
+}
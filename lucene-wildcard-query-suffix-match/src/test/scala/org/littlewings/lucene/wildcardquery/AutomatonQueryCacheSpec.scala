@@ -0,0 +1,121 @@
+package org.littlewings.lucene.wildcardquery
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer
+import org.apache.lucene.document.Field.Store
+import org.apache.lucene.document.{Document, TextField}
+import org.apache.lucene.index.{DirectoryReader, IndexWriter, IndexWriterConfig, Term}
+import org.apache.lucene.search.{FuzzyQuery, IndexSearcher, TopDocs, WildcardQuery}
+import org.apache.lucene.store.RAMDirectory
+import org.scalatest.{FunSpec, Matchers}
+
+class AutomatonQueryCacheSpec extends FunSpec with Matchers {
+  describe("AutomatonQueryCache Spec") {
+    it("reuse compiled WildcardQuery") {
+      val cache = new AutomatonQueryCache(10)
+
+      val query1 = cache.wildcardQuery(new Term("name", "*foo"))
+      val query2 = cache.wildcardQuery(new Term("name", "*foo"))
+      val query3 = cache.wildcardQuery(new Term("name", "foo*"))
+
+      query1 should be(new WildcardQuery(new Term("name", "*foo")))
+      query2 should be(query1)
+      query2 should not be theSameInstanceAs(query1)
+      query3 should be(new WildcardQuery(new Term("name", "foo*")))
+
+      val stats = cache.stats
+      stats.hits should be(1)
+      stats.misses should be(2)
+      stats.size should be(2)
+      stats.hitRate should be(1.0 / 3 +- 0.001)
+    }
+
+    it("fuzzy and wildcard keys are separated") {
+      val cache = new AutomatonQueryCache(10)
+
+      cache.fuzzyQuery(new Term("name", "foo"), 1)
+      cache.fuzzyQuery(new Term("name", "foo"), 2)
+      cache.fuzzyQuery(new Term("name", "foo"), 1, transpositions = false)
+      cache.wildcardQuery(new Term("name", "foo"))
+      cache.fuzzyQuery(new Term("name", "foo"), 1)
+
+      cache.stats.hits should be(1)
+      cache.stats.misses should be(4)
+    }
+
+    it("evict least recently used") {
+      val cache = new AutomatonQueryCache(2)
+
+      cache.wildcardQuery(new Term("name", "a*"))
+      cache.wildcardQuery(new Term("name", "b*"))
+      cache.wildcardQuery(new Term("name", "a*"))
+      cache.wildcardQuery(new Term("name", "c*"))
+      cache.wildcardQuery(new Term("name", "a*"))
+      cache.wildcardQuery(new Term("name", "b*"))
+
+      val stats = cache.stats
+      stats.hits should be(2)
+      stats.misses should be(4)
+      stats.evictions should be(2)
+      stats.size should be(2)
+    }
+
+    it("search by cached queries") {
+      val analyzer = new StandardAnalyzer
+      val directory = new RAMDirectory
+
+      val indexWriter = new IndexWriter(directory, new IndexWriterConfig(analyzer))
+      Array("foo_bar", "bar_foo", "bar_fox").foreach { name =>
+        val d = new Document()
+        d.add(new TextField("name", name, Store.YES))
+        indexWriter.addDocument(d)
+      }
+      indexWriter.commit()
+      indexWriter.close()
+
+      val reader = DirectoryReader.open(directory)
+      val searcher = new IndexSearcher(reader)
+
+      val cache = new AutomatonQueryCache(10)
+
+      (1 to 3).foreach { _ =>
+        searcher.count(cache.wildcardQuery(new Term("name", "*foo"))) should be(1)
+        searcher.count(cache.fuzzyQuery(new Term("name", "bar_foo"), 1)) should be(2)
+      }
+
+      cache.stats.hits should be(4)
+      cache.stats.misses should be(2)
+
+      reader.close()
+      directory.close()
+    }
+
+    it("fuzzy matches the same documents as FuzzyQuery") {
+      val analyzer = new StandardAnalyzer
+      val directory = new RAMDirectory
+
+      val indexWriter = new IndexWriter(directory, new IndexWriterConfig(analyzer))
+      Array("lucene", "lucena", "lucxnx", "solr").foreach { name =>
+        val d = new Document()
+        d.add(new TextField("name", name, Store.YES))
+        indexWriter.addDocument(d)
+      }
+      indexWriter.commit()
+      indexWriter.close()
+
+      val reader = DirectoryReader.open(directory)
+      val searcher = new IndexSearcher(reader)
+
+      val cache = new AutomatonQueryCache(10)
+      val term = new Term("name", "lucene")
+
+      def names(topDocs: TopDocs): Set[String] =
+        topDocs.scoreDocs.map(sd => searcher.doc(sd.doc).get("name")).toSet
+
+      names(searcher.search(cache.fuzzyQuery(term, 2), 10)) should be(names(searcher.search(new FuzzyQuery(term, 2), 10)))
+      names(searcher.search(cache.fuzzyQuery(term, 2), 10)) should be(Set("lucene", "lucena", "lucxnx"))
+
+      reader.close()
+      directory.close()
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package org.littlewings.lucene.wildcardquery
+
+import org.apache.lucene.analysis.Analyzer.TokenStreamComponents
+import org.apache.lucene.analysis.reverse.ReverseStringFilter
+import org.apache.lucene.analysis.{Analyzer, AnalyzerWrapper}
+import org.apache.lucene.document.Field.Store
+import org.apache.lucene.document.{Document, TextField}
+
+object ReverseFieldAnalyzer {
+  val ReversedFieldSuffix: String = "_reversed"
+
+  def reversedField(field: String): String = field + ReversedFieldSuffix
+
+  def reverse(value: String): String = new java.lang.StringBuilder(value).reverse.toString
+
+  /** fieldと、トークンを反転してインデックスするシャドウフィールドの両方を追加する */
+  def addField(document: Document, field: String, value: String, store: Store): Unit = {
+    document.add(new TextField(field, value, store))
+    document.add(new TextField(reversedField(field), value, Store.NO))
+  }
+}
+
+/**
+ * 「フィールド名 + _reversed」のフィールドだけ、delegateの解析結果の各トークンを反転する
+ */
+class ReverseFieldAnalyzer(delegate: Analyzer, fields: Set[String]) extends AnalyzerWrapper(Analyzer.PER_FIELD_REUSE_STRATEGY) {
+  private val reversedFields: Set[String] = fields.map(ReverseFieldAnalyzer.reversedField)
+
+  override protected def getWrappedAnalyzer(fieldName: String): Analyzer = delegate
+
+  override protected def wrapComponents(fieldName: String, components: TokenStreamComponents): TokenStreamComponents =
+    if (reversedFields.contains(fieldName)) {
+      new TokenStreamComponents(components.getTokenizer, new ReverseStringFilter(components.getTokenStream))
+    } else {
+      components
+    }
+}
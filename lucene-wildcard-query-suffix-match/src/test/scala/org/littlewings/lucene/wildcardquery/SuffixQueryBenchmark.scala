@@ -0,0 +1,88 @@
+package org.littlewings.lucene.wildcardquery
+
+import java.nio.file.{Files, Path}
+import java.util.concurrent.TimeUnit
+
+import scala.util.Random
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer
+import org.apache.lucene.document.Document
+import org.apache.lucene.document.Field.Store
+import org.apache.lucene.index.{DirectoryReader, IndexWriter, IndexWriterConfig, Term}
+import org.apache.lucene.search.{IndexSearcher, Query, WildcardQuery}
+import org.apache.lucene.store.{Directory, FSDirectory}
+import org.apache.lucene.util.IOUtils
+import org.openjdk.jmh.annotations._
+
+/**
+ * sbt "jmh:run -i 5 -wi 3 -f 1 SuffixQueryBenchmark"
+ *
+ * ユニークな語がnumTerms個あるフィールドに対して、「*suffix」をWildcardQueryで検索する場合(wildcard)と、
+ * 反転したフィールドへのPrefixQueryに書き換えた場合(reversedPrefix)を比較する
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+class SuffixQueryBenchmark {
+  @Param(Array("10000000"))
+  var numTerms: Int = _
+
+  @Param(Array("3", "6"))
+  var suffixLength: Int = _
+
+  var path: Path = _
+  var directory: Directory = _
+  var reader: DirectoryReader = _
+  var searcher: IndexSearcher = _
+
+  var suffixes: Array[String] = _
+  var index: Int = 0
+
+  @Setup
+  def setUp(): Unit = {
+    val random = new Random(42L)
+    path = Files.createTempDirectory("suffix-query-benchmark")
+    directory = FSDirectory.open(path)
+
+    val analyzer = new ReverseFieldAnalyzer(new KeywordAnalyzer, Set("name"))
+    val indexWriter = new IndexWriter(directory, new IndexWriterConfig(analyzer).setRAMBufferSizeMB(256))
+
+    // 乱数のプレフィックスに連番を付けて、ユニークな語にする
+    (0 until numTerms).foreach { i =>
+      val d = new Document()
+      ReverseFieldAnalyzer.addField(d, "name", f"${random.alphanumeric.take(4).mkString.toLowerCase}$i%08d", Store.NO)
+      indexWriter.addDocument(d)
+    }
+    indexWriter.forceMerge(1)
+    indexWriter.close()
+
+    reader = DirectoryReader.open(directory)
+    searcher = new IndexSearcher(reader)
+
+    suffixes = Array.fill(100)(f"${random.nextInt(numTerms)}%08d".takeRight(suffixLength))
+  }
+
+  @TearDown
+  def tearDown(): Unit = {
+    reader.close()
+    directory.close()
+    IOUtils.rm(path)
+  }
+
+  private def nextSuffix(): String = {
+    index = (index + 1) % suffixes.length
+    suffixes(index)
+  }
+
+  @Benchmark
+  def wildcard: Int = {
+    val query: Query = new WildcardQuery(new Term("name", "*" + nextSuffix()))
+    searcher.count(query)
+  }
+
+  @Benchmark
+  def reversedPrefix: Int = {
+    val query = SuffixQueryParser.rewrite("name", "*" + nextSuffix()).get
+    searcher.count(query)
+  }
+}
@@ -0,0 +1,47 @@
+package org.littlewings.lucene.wildcardquery
+
+import org.apache.lucene.analysis.Analyzer
+import org.apache.lucene.index.Term
+import org.apache.lucene.queryparser.classic.QueryParser
+import org.apache.lucene.search.{PrefixQuery, Query, WildcardQuery}
+
+object SuffixQueryParser {
+  /**
+   * 先頭がワイルドカードのパターンを、反転したフィールドへのクエリに書き換える。
+   * 「*foo」はPrefixQuery(「oof」)に、「*f?o」は先頭が固定されたWildcardQuery(「o?f*」)になる。
+   * 書き換えても先頭がワイルドカードになる(「*foo*」など)場合はNone
+   */
+  def rewrite(field: String, pattern: String): Option[Query] = {
+    val startsWithWildcard = pattern.headOption.exists(c => c == WildcardQuery.WILDCARD_STRING || c == WildcardQuery.WILDCARD_CHAR)
+    val reversed = ReverseFieldAnalyzer.reverse(pattern)
+    val reversedStartsWithWildcard = reversed.headOption.exists(c => c == WildcardQuery.WILDCARD_STRING || c == WildcardQuery.WILDCARD_CHAR)
+
+    if (!startsWithWildcard || reversedStartsWithWildcard || pattern.contains(WildcardQuery.WILDCARD_ESCAPE)) {
+      None
+    } else {
+      val reversedField = ReverseFieldAnalyzer.reversedField(field)
+      val body = reversed.init
+
+      if (reversed.last == WildcardQuery.WILDCARD_STRING && !body.exists(c => c == WildcardQuery.WILDCARD_STRING || c == WildcardQuery.WILDCARD_CHAR)) {
+        Some(new PrefixQuery(new Term(reversedField, body)))
+      } else {
+        Some(new WildcardQuery(new Term(reversedField, reversed)))
+      }
+    }
+  }
+}
+
+/**
+ * reversedFieldsに含まれるフィールドの、先頭がワイルドカードのクエリを、反転したシャドウフィールドへのクエリにするQueryParser
+ */
+class SuffixQueryParser(field: String, analyzer: Analyzer, reversedFields: Set[String]) extends QueryParser(field, analyzer) {
+  setAllowLeadingWildcard(true)
+
+  override protected def getWildcardQuery(field: String, termStr: String): Query =
+    if (reversedFields.contains(field)) {
+      val pattern = if (getLowercaseExpandedTerms) termStr.toLowerCase(getLocale) else termStr
+      SuffixQueryParser.rewrite(field, pattern).getOrElse(super.getWildcardQuery(field, termStr))
+    } else {
+      super.getWildcardQuery(field, termStr)
+    }
+}
@@ -5,7 +5,7 @@ import org.apache.lucene.document.Field.Store
 import org.apache.lucene.document.{Document, TextField}
 import org.apache.lucene.index.{DirectoryReader, IndexWriter, IndexWriterConfig, Term}
 import org.apache.lucene.queryparser.classic.{ParseException, QueryParser}
-import org.apache.lucene.search.{IndexSearcher, Sort, WildcardQuery}
+import org.apache.lucene.search.{IndexSearcher, PrefixQuery, Sort, WildcardQuery}
 import org.apache.lucene.store.RAMDirectory
 import org.scalatest.{FunSpec, Matchers}
 
@@ -70,5 +70,80 @@ class WildcardQuerySpec extends FunSpec with Matchers {
 
       directory.close()
     }
+
+    it("suffix search, using reversed field") {
+      val analyzer = new ReverseFieldAnalyzer(new StandardAnalyzer, Set("name"))
+      val directory = new RAMDirectory
+
+      val indexWriter = new IndexWriter(directory, new IndexWriterConfig(analyzer))
+      val document1 = {
+        val d = new Document()
+        ReverseFieldAnalyzer.addField(d, "name", "foo_bar", Store.YES)
+        d
+      }
+      val document2 = {
+        val d = new Document()
+        ReverseFieldAnalyzer.addField(d, "name", "bar_foo", Store.YES)
+        d
+      }
+
+      indexWriter.addDocument(document1)
+      indexWriter.addDocument(document2)
+      indexWriter.commit()
+      indexWriter.close()
+
+      val query = SuffixQueryParser.rewrite("name", "*foo").get
+      query should be(new PrefixQuery(new Term("name_reversed", "oof")))
+
+      val reader = DirectoryReader.open(directory)
+      val searcher = new IndexSearcher(reader)
+
+      val topDocs = searcher.search(query, 100, Sort.RELEVANCE)
+      topDocs.totalHits should be(1)
+      val resultDoc = searcher.doc(topDocs.scoreDocs(0).doc)
+      resultDoc.get("name") should be("bar_foo")
+
+      reader.close()
+      directory.close()
+    }
+
+    it("suffix search, using SuffixQueryParser") {
+      val analyzer = new ReverseFieldAnalyzer(new StandardAnalyzer, Set("name"))
+      val directory = new RAMDirectory
+
+      val indexWriter = new IndexWriter(directory, new IndexWriterConfig(analyzer))
+      val document1 = {
+        val d = new Document()
+        ReverseFieldAnalyzer.addField(d, "name", "foo_bar", Store.YES)
+        d
+      }
+      val document2 = {
+        val d = new Document()
+        ReverseFieldAnalyzer.addField(d, "name", "bar_foo", Store.YES)
+        d
+      }
+
+      indexWriter.addDocument(document1)
+      indexWriter.addDocument(document2)
+      indexWriter.commit()
+      indexWriter.close()
+
+      val queryParser = new SuffixQueryParser("name", analyzer, Set("name"))
+      queryParser.parse("*_FOO") should be(new PrefixQuery(new Term("name_reversed", "oof_")))
+      queryParser.parse("*_f?o") should be(new WildcardQuery(new Term("name_reversed", "o?f_*")))
+      // 両端がワイルドカードの場合は書き換えない
+      queryParser.parse("*foo*") should be(new WildcardQuery(new Term("name", "*foo*")))
+
+      val reader = DirectoryReader.open(directory)
+      val searcher = new IndexSearcher(reader)
+
+      val topDocs = searcher.search(queryParser.parse("*_foo"), 100, Sort.RELEVANCE)
+      topDocs.totalHits should be(1)
+      val resultDoc = searcher.doc(topDocs.scoreDocs(0).doc)
+      resultDoc.get("name") should be("bar_foo")
+
+      reader.close()
+      directory.close()
+    }
   }
 }
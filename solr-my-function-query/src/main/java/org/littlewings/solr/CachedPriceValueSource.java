@@ -0,0 +1,58 @@
+package org.littlewings.solr;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.queries.function.FunctionValues;
+import org.apache.lucene.queries.function.ValueSource;
+import org.apache.lucene.queries.function.docvalues.IntDocValues;
+import org.apache.lucene.search.IndexSearcher;
+
+public class CachedPriceValueSource extends ValueSource {
+    protected ValueSource source;
+    protected PriceColumnCache cache;
+
+    public CachedPriceValueSource(ValueSource source, PriceColumnCache cache) {
+        this.source = source;
+        this.cache = cache;
+    }
+
+    @Override
+    public void createWeight(Map context, IndexSearcher searcher) throws IOException {
+        source.createWeight(context, searcher);
+    }
+
+    @Override
+    public FunctionValues getValues(Map context, LeafReaderContext readerContext) throws IOException {
+        PriceColumnCache.Column column = cache.get(source, context, readerContext);
+
+        return new IntDocValues(this) {
+            @Override
+            public int intVal(int doc) {
+                return column.get(doc);
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (CachedPriceValueSource.class.equals(o.getClass())) {
+            CachedPriceValueSource other = (CachedPriceValueSource) o;
+            return Objects.equals(source, other.source);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(CachedPriceValueSource.class, source);
+    }
+
+    @Override
+    public String description() {
+        return CachedPriceValueSource.class.getSimpleName() + "(" + source.description() + ")";
+    }
+}
@@ -0,0 +1,9 @@
+package org.littlewings.solr;
+
+import java.io.IOException;
+
+import org.apache.lucene.index.LeafReader;
+
+public interface CampaignPriceSource {
+    boolean mayHaveCampaign(LeafReader reader) throws IOException;
+}
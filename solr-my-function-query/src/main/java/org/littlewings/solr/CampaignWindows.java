@@ -0,0 +1,81 @@
+package org.littlewings.solr;
+
+import java.io.IOException;
+
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.queries.function.ValueSource;
+import org.apache.lucene.queries.function.valuesource.FieldCacheSource;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.NumericUtils;
+
+/**
+ * Decides from the per-segment term dictionary bounds whether any campaign window in a segment can contain now.
+ * Returns true whenever the bounds are unknown (e.g. not a field source, or a docValues only field).
+ */
+final class CampaignWindows {
+    private CampaignWindows() {
+    }
+
+    static boolean mayContain(LeafReader reader, ValueSource startDate, ValueSource endDate, BytesRef now) throws IOException {
+        FieldInfo startDateInfo = fieldInfo(reader, startDate);
+        FieldInfo endDateInfo = fieldInfo(reader, endDate);
+
+        if (startDateInfo == null || endDateInfo == null) {
+            return !isFieldSource(startDate) || !isFieldSource(endDate);
+        }
+
+        if (!isIndexed(startDateInfo) || !isIndexed(endDateInfo)) {
+            return true;
+        }
+
+        Terms startDateTerms = reader.terms(startDateInfo.name);
+        Terms endDateTerms = reader.terms(endDateInfo.name);
+
+        if (startDateTerms == null || endDateTerms == null) {
+            return false;
+        }
+
+        return startDateTerms.getMin().compareTo(now) <= 0 && endDateTerms.getMax().compareTo(now) >= 0;
+    }
+
+    static boolean mayContain(LeafReader reader, ValueSource startDate, ValueSource endDate, long now) throws IOException {
+        FieldInfo startDateInfo = fieldInfo(reader, startDate);
+        FieldInfo endDateInfo = fieldInfo(reader, endDate);
+
+        if (startDateInfo == null || endDateInfo == null) {
+            return !isFieldSource(startDate) || !isFieldSource(endDate);
+        }
+
+        if (!isIndexed(startDateInfo) || !isIndexed(endDateInfo)) {
+            return true;
+        }
+
+        Terms startDateTerms = reader.terms(startDateInfo.name);
+        Terms endDateTerms = reader.terms(endDateInfo.name);
+
+        if (startDateTerms == null || endDateTerms == null) {
+            return false;
+        }
+
+        return NumericUtils.getMinLong(startDateTerms) <= now && NumericUtils.getMaxLong(endDateTerms) >= now;
+    }
+
+    static boolean isFieldSource(ValueSource valueSource) {
+        return valueSource instanceof FieldCacheSource;
+    }
+
+    static FieldInfo fieldInfo(LeafReader reader, ValueSource valueSource) {
+        if (isFieldSource(valueSource)) {
+            return reader.getFieldInfos().fieldInfo(((FieldCacheSource) valueSource).getField());
+        } else {
+            return null;
+        }
+    }
+
+    static boolean isIndexed(FieldInfo fieldInfo) {
+        return fieldInfo.getIndexOptions() != IndexOptions.NONE;
+    }
+}
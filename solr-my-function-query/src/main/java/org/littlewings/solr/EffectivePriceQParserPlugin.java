@@ -0,0 +1,111 @@
+package org.littlewings.solr;
+
+import org.apache.lucene.queries.function.ValueSource;
+import org.apache.lucene.search.Query;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.schema.SchemaField;
+import org.apache.solr.search.QParser;
+import org.apache.solr.search.QParserPlugin;
+import org.apache.solr.search.SyntaxError;
+
+/**
+ * {!effectivePrice normalPrice=price campaignPrice=campaign_price startDate=start_date endDate=end_date now=... l=1000 u=3000}
+ * <p>
+ * Parameters are read from the local params first and then from the request params,
+ * so the parser also works as defType=effectivePrice.
+ * <p>
+ * Registered in solrconfig.xml next to PriceValueSourceParser, with the same dateType:
+ * <pre>
+ * &lt;valueSourceParser name="price" class="org.littlewings.solr.PriceValueSourceParser"&gt;
+ *   &lt;str name="dateType"&gt;epoch&lt;/str&gt;
+ * &lt;/valueSourceParser&gt;
+ * &lt;queryParser name="effectivePrice" class="org.littlewings.solr.EffectivePriceQParserPlugin"&gt;
+ *   &lt;str name="dateType"&gt;epoch&lt;/str&gt;
+ * &lt;/queryParser&gt;
+ * </pre>
+ */
+public class EffectivePriceQParserPlugin extends QParserPlugin {
+    protected boolean epochDate;
+
+    @Override
+    public void init(NamedList args) {
+        if (args != null) {
+            epochDate = "epoch".equals(args.get("dateType"));
+        }
+    }
+
+    @Override
+    public QParser createParser(String qstr, SolrParams localParams, SolrParams params, SolrQueryRequest req) {
+        return new QParser(qstr, localParams, params, req) {
+            @Override
+            public Query parse() throws SyntaxError {
+                SchemaField normalPriceField = field("normalPrice", "price");
+                SchemaField campaignPriceField = field("campaignPrice", "campaign_price");
+                SchemaField startDateField = field("startDate", "start_date");
+                SchemaField endDateField = field("endDate", "end_date");
+
+                String now = getParam("now");
+                if (now == null) {
+                    throw new SyntaxError("now is required");
+                }
+
+                String lower = bound(getParam("l"));
+                String upper = bound(getParam("u"));
+
+                Query normalPriceRange =
+                        normalPriceField.getType().getRangeQuery(this, normalPriceField, lower, upper, true, true);
+                Query campaignPriceRange =
+                        campaignPriceField.getType().getRangeQuery(this, campaignPriceField, lower, upper, true, true);
+
+                ValueSource normalPrice = normalPriceField.getType().getValueSource(normalPriceField, this);
+                ValueSource campaignPrice = campaignPriceField.getType().getValueSource(campaignPriceField, this);
+                ValueSource startDate = startDateField.getType().getValueSource(startDateField, this);
+                ValueSource endDate = endDateField.getType().getValueSource(endDateField, this);
+
+                int lowerPrice = parsePrice(lower, Integer.MIN_VALUE);
+                int upperPrice = parsePrice(upper, Integer.MAX_VALUE);
+
+                if (epochDate) {
+                    return new EffectivePriceRangeQuery(
+                            normalPriceRange,
+                            campaignPriceRange,
+                            new EpochPriceValueSource(normalPrice, campaignPrice, startDate, endDate, PriceValueSourceParser.parseEpoch(now)),
+                            lowerPrice,
+                            upperPrice
+                    );
+                } else {
+                    return new EffectivePriceRangeQuery(
+                            normalPriceRange,
+                            campaignPriceRange,
+                            new PriceValueSource(normalPrice, campaignPrice, startDate, endDate, now),
+                            lowerPrice,
+                            upperPrice
+                    );
+                }
+            }
+
+            SchemaField field(String name, String defaultFieldName) {
+                String fieldName = getParam(name);
+                return req.getSchema().getField(fieldName != null ? fieldName : defaultFieldName);
+            }
+
+            String bound(String price) {
+                return "*".equals(price) ? null : price;
+            }
+
+            int parsePrice(String price, int defaultPrice) throws SyntaxError {
+                if (price == null) {
+                    return defaultPrice;
+                }
+
+                try {
+                    return Integer.parseInt(price);
+                } catch (NumberFormatException e) {
+                    throw new SyntaxError("invalid price[" + price + "]", e);
+                }
+            }
+        };
+    }
+}
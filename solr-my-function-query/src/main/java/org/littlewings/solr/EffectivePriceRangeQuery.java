@@ -0,0 +1,118 @@
+package org.littlewings.solr;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.queries.function.FunctionValues;
+import org.apache.lucene.queries.function.ValueSource;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ConstantScoreScorer;
+import org.apache.lucene.search.ConstantScoreWeight;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TwoPhaseIterator;
+import org.apache.lucene.search.Weight;
+
+/**
+ * Matches documents whose effective price (campaign price inside the campaign window, normal price otherwise)
+ * is within [lower, upper].
+ * Candidates come from the normal / campaign price range queries, and only those are verified by the price function.
+ */
+public class EffectivePriceRangeQuery extends Query {
+    protected Query normalPriceRange;
+    protected Query campaignPriceRange;
+    protected ValueSource effectivePrice;
+    protected CampaignPriceSource campaignPriceSource;
+    protected int lower;
+    protected int upper;
+
+    public <T extends ValueSource & CampaignPriceSource> EffectivePriceRangeQuery(Query normalPriceRange, Query campaignPriceRange, T effectivePrice, int lower, int upper) {
+        this.normalPriceRange = normalPriceRange;
+        this.campaignPriceRange = campaignPriceRange;
+        this.effectivePrice = effectivePrice;
+        this.campaignPriceSource = effectivePrice;
+        this.lower = lower;
+        this.upper = upper;
+    }
+
+    @Override
+    public Weight createWeight(IndexSearcher searcher, boolean needsScores) throws IOException {
+        Query candidates = new BooleanQuery.Builder()
+                .add(normalPriceRange, BooleanClause.Occur.SHOULD)
+                .add(campaignPriceRange, BooleanClause.Occur.SHOULD)
+                .build();
+
+        Weight normalPriceWeight = searcher.createNormalizedWeight(normalPriceRange, false);
+        Weight candidatesWeight = searcher.createNormalizedWeight(candidates, false);
+
+        Map valueSourceContext = ValueSource.newContext(searcher);
+        effectivePrice.createWeight(valueSourceContext, searcher);
+
+        return new ConstantScoreWeight(this) {
+            @Override
+            public Scorer scorer(LeafReaderContext context) throws IOException {
+                if (!campaignPriceSource.mayHaveCampaign(context.reader())) {
+                    // no campaign is running in this segment, so the normal price range is already exact
+                    Scorer normalPriceScorer = normalPriceWeight.scorer(context);
+
+                    if (normalPriceScorer == null) {
+                        return null;
+                    }
+
+                    return new ConstantScoreScorer(this, score(), normalPriceScorer);
+                }
+
+                Scorer candidatesScorer = candidatesWeight.scorer(context);
+
+                if (candidatesScorer == null) {
+                    return null;
+                }
+
+                FunctionValues effectivePriceVals = effectivePrice.getValues(valueSourceContext, context);
+
+                TwoPhaseIterator twoPhaseIterator = new TwoPhaseIterator(candidatesScorer) {
+                    @Override
+                    public boolean matches() throws IOException {
+                        int price = effectivePriceVals.intVal(approximation.docID());
+                        return price >= lower && price <= upper;
+                    }
+
+                    @Override
+                    public float matchCost() {
+                        return 10F;
+                    }
+                };
+
+                return new ConstantScoreScorer(this, score(), twoPhaseIterator);
+            }
+        };
+    }
+
+    @Override
+    public String toString(String field) {
+        return "effectivePrice(" + effectivePrice.description() + ")[" + lower + " TO " + upper + "]";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o)) {
+            return false;
+        }
+
+        EffectivePriceRangeQuery other = (EffectivePriceRangeQuery) o;
+        return Objects.equals(normalPriceRange, other.normalPriceRange) &&
+                Objects.equals(campaignPriceRange, other.campaignPriceRange) &&
+                Objects.equals(effectivePrice, other.effectivePrice) &&
+                lower == other.lower &&
+                upper == other.upper;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hash(normalPriceRange, campaignPriceRange, effectivePrice, lower, upper);
+    }
+}
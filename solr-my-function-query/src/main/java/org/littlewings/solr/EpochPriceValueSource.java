@@ -0,0 +1,81 @@
+package org.littlewings.solr;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.queries.function.FunctionValues;
+import org.apache.lucene.queries.function.ValueSource;
+import org.apache.lucene.queries.function.docvalues.IntDocValues;
+
+public class EpochPriceValueSource extends ValueSource implements CampaignPriceSource {
+    protected ValueSource normalPrice;
+    protected ValueSource campaignPrice;
+    protected ValueSource startDate;
+    protected ValueSource endDate;
+    protected long now;
+
+    public EpochPriceValueSource(ValueSource normalPrice, ValueSource campaignPrice, ValueSource startDate, ValueSource endDate, long now) {
+        this.normalPrice = normalPrice;
+        this.campaignPrice = campaignPrice;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.now = now;
+    }
+
+    @Override
+    public FunctionValues getValues(Map context, LeafReaderContext readerContext) throws IOException {
+        if (!mayHaveCampaign(readerContext.reader())) {
+            return normalPrice.getValues(context, readerContext);
+        }
+
+        FunctionValues normalPriceVals = normalPrice.getValues(context, readerContext);
+        FunctionValues campaignPriceVals = campaignPrice.getValues(context, readerContext);
+        FunctionValues startDateVals = startDate.getValues(context, readerContext);
+        FunctionValues endDateVals = endDate.getValues(context, readerContext);
+        long now = this.now;
+
+        return new IntDocValues(this) {
+            @Override
+            public int intVal(int doc) {
+                if (startDateVals.exists(doc) && startDateVals.longVal(doc) <= now &&
+                        endDateVals.exists(doc) && endDateVals.longVal(doc) >= now) {
+                    return campaignPriceVals.intVal(doc);
+                } else {
+                    return normalPriceVals.intVal(doc);
+                }
+            }
+        };
+    }
+
+    @Override
+    public boolean mayHaveCampaign(LeafReader reader) throws IOException {
+        return CampaignWindows.mayContain(reader, startDate, endDate, now);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (EpochPriceValueSource.class.equals(o.getClass())) {
+            EpochPriceValueSource other = (EpochPriceValueSource) o;
+            return Objects.equals(normalPrice, other.normalPrice) &&
+                    Objects.equals(campaignPrice, other.campaignPrice) &&
+                    Objects.equals(startDate, other.startDate) &&
+                    Objects.equals(endDate, other.endDate) &&
+                    now == other.now;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(normalPrice, campaignPrice, startDate, endDate, now);
+    }
+
+    @Override
+    public String description() {
+        return EpochPriceValueSource.class.getSimpleName();
+    }
+}
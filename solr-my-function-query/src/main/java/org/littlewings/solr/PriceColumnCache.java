@@ -0,0 +1,168 @@
+package org.littlewings.solr;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.queries.function.FunctionValues;
+import org.apache.lucene.queries.function.ValueSource;
+import org.apache.lucene.util.packed.PackedInts;
+
+/**
+ * Materialized effective prices per segment core, keyed by the price ValueSource (which includes now).
+ * Columns are dropped when the segment core is closed, or when more than maxColumnsPerCore sources are held for a core.
+ */
+public class PriceColumnCache {
+    protected int maxColumnsPerCore;
+
+    private final ConcurrentMap<Object, CoreColumns> cores = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public PriceColumnCache(int maxColumnsPerCore) {
+        this.maxColumnsPerCore = maxColumnsPerCore;
+    }
+
+    public Column get(ValueSource source, Map context, LeafReaderContext readerContext) throws IOException {
+        LeafReader reader = readerContext.reader();
+        Object coreKey = reader.getCoreCacheKey();
+
+        CoreColumns coreColumns = cores.get(coreKey);
+        if (coreColumns == null) {
+            CoreColumns newCoreColumns = new CoreColumns();
+            coreColumns = cores.putIfAbsent(coreKey, newCoreColumns);
+
+            if (coreColumns == null) {
+                coreColumns = newCoreColumns;
+                reader.addCoreClosedListener(this::evict);
+            }
+        }
+
+        Column column = coreColumns.get(source);
+        if (column != null) {
+            hits.incrementAndGet();
+            return column;
+        }
+
+        misses.incrementAndGet();
+
+        column = Column.materialize(source.getValues(context, readerContext), reader.maxDoc());
+        return coreColumns.putIfAbsent(source, column);
+    }
+
+    void evict(Object coreKey) {
+        CoreColumns coreColumns = cores.remove(coreKey);
+
+        if (coreColumns != null) {
+            evictions.addAndGet(coreColumns.size());
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public int getCoreCount() {
+        return cores.size();
+    }
+
+    @Override
+    public String toString() {
+        return PriceColumnCache.class.getSimpleName() +
+                "{hits=" + getHitCount() +
+                ", misses=" + getMissCount() +
+                ", evictions=" + getEvictionCount() +
+                ", cores=" + getCoreCount() + "}";
+    }
+
+    class CoreColumns {
+        private final Map<ValueSource, Column> columns = new LinkedHashMap<ValueSource, Column>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ValueSource, Column> eldest) {
+                if (size() > maxColumnsPerCore) {
+                    evictions.incrementAndGet();
+                    return true;
+                } else {
+                    return false;
+                }
+            }
+        };
+
+        synchronized Column get(ValueSource source) {
+            return columns.get(source);
+        }
+
+        synchronized Column putIfAbsent(ValueSource source, Column column) {
+            Column existing = columns.get(source);
+
+            if (existing != null) {
+                return existing;
+            }
+
+            columns.put(source, column);
+            return column;
+        }
+
+        synchronized int size() {
+            return columns.size();
+        }
+    }
+
+    public static class Column {
+        private final long minValue;
+        private final PackedInts.Reader values;
+
+        Column(long minValue, PackedInts.Reader values) {
+            this.minValue = minValue;
+            this.values = values;
+        }
+
+        static Column materialize(FunctionValues functionValues, int maxDoc) {
+            int[] prices = new int[maxDoc];
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+
+            for (int doc = 0; doc < maxDoc; doc++) {
+                int price = functionValues.intVal(doc);
+                prices[doc] = price;
+                min = Math.min(min, price);
+                max = Math.max(max, price);
+            }
+
+            if (maxDoc == 0) {
+                min = max = 0L;
+            }
+
+            PackedInts.Mutable packed =
+                    PackedInts.getMutable(maxDoc, PackedInts.bitsRequired(max - min), PackedInts.DEFAULT);
+            for (int doc = 0; doc < maxDoc; doc++) {
+                packed.set(doc, prices[doc] - min);
+            }
+
+            return new Column(min, packed);
+        }
+
+        public int get(int doc) {
+            return (int) (minValue + values.get(doc));
+        }
+
+        public long ramBytesUsed() {
+            return values.ramBytesUsed();
+        }
+    }
+}
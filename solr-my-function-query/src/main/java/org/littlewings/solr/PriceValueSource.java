@@ -4,12 +4,14 @@ import java.io.IOException;
 import java.util.Map;
 import java.util.Objects;
 
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.queries.function.FunctionValues;
 import org.apache.lucene.queries.function.ValueSource;
 import org.apache.lucene.queries.function.docvalues.IntDocValues;
+import org.apache.lucene.util.BytesRef;
 
-public class PriceValueSource extends ValueSource {
+public class PriceValueSource extends ValueSource implements CampaignPriceSource {
     protected ValueSource normalPrice;
     protected ValueSource campaignPrice;
     protected ValueSource startDate;
@@ -26,6 +28,10 @@ public class PriceValueSource extends ValueSource {
 
     @Override
     public FunctionValues getValues(Map context, LeafReaderContext readerContext) throws IOException {
+        if (!mayHaveCampaign(readerContext.reader())) {
+            return normalPrice.getValues(context, readerContext);
+        }
+
         FunctionValues normalPriceVals = normalPrice.getValues(context, readerContext);
         FunctionValues campaignPriceVals = campaignPrice.getValues(context, readerContext);
         FunctionValues startDateVals = startDate.getValues(context, readerContext);
@@ -44,6 +50,11 @@ public class PriceValueSource extends ValueSource {
         };
     }
 
+    @Override
+    public boolean mayHaveCampaign(LeafReader reader) throws IOException {
+        return CampaignWindows.mayContain(reader, startDate, endDate, new BytesRef(now));
+    }
+
     @Override
     public boolean equals(Object o) {
         if (PriceValueSource.class.equals(o.getClass())) {
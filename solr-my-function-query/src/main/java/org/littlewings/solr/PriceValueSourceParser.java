@@ -1,11 +1,30 @@
 package org.littlewings.solr;
 
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
 import org.apache.lucene.queries.function.ValueSource;
+import org.apache.solr.common.util.NamedList;
 import org.apache.solr.search.FunctionQParser;
 import org.apache.solr.search.SyntaxError;
 import org.apache.solr.search.ValueSourceParser;
 
 public class PriceValueSourceParser extends ValueSourceParser {
+    protected boolean epochDate;
+    protected PriceColumnCache cache;
+
+    @Override
+    public void init(NamedList args) {
+        if (args != null) {
+            epochDate = "epoch".equals(args.get("dateType"));
+
+            if ("true".equals(String.valueOf(args.get("cache")))) {
+                Object maxColumnsPerCore = args.get("maxColumnsPerCore");
+                cache = new PriceColumnCache(maxColumnsPerCore != null ? Integer.parseInt(maxColumnsPerCore.toString()) : 2);
+            }
+        }
+    }
+
     @Override
     public ValueSource parse(FunctionQParser fp) throws SyntaxError {
         ValueSource normalPrice = fp.parseValueSource();
@@ -14,6 +33,37 @@ public class PriceValueSourceParser extends ValueSourceParser {
         ValueSource endDate = fp.parseValueSource();
         String now = fp.parseArg();
 
-        return new PriceValueSource(normalPrice, campaignPrice, startDate, endDate, now);
+        ValueSource price;
+        if (epochDate) {
+            price = new EpochPriceValueSource(normalPrice, campaignPrice, startDate, endDate, parseEpoch(now));
+        } else {
+            price = new PriceValueSource(normalPrice, campaignPrice, startDate, endDate, now);
+        }
+
+        if (cache != null) {
+            return new CachedPriceValueSource(price, cache);
+        } else {
+            return price;
+        }
+    }
+
+    public PriceColumnCache getCache() {
+        return cache;
+    }
+
+    static long parseEpoch(String now) throws SyntaxError {
+        if (now == null) {
+            throw new SyntaxError("now is required");
+        }
+
+        try {
+            if (now.chars().allMatch(Character::isDigit)) {
+                return Long.parseLong(now);
+            } else {
+                return Instant.parse(now).toEpochMilli();
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new SyntaxError("invalid now[" + now + "], expected epoch millis or ISO-8601 instant", e);
+        }
     }
 }
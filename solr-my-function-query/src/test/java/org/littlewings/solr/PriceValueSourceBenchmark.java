@@ -0,0 +1,152 @@
+package org.littlewings.solr;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.queries.function.FunctionValues;
+import org.apache.lucene.queries.function.ValueSource;
+import org.apache.lucene.queries.function.valuesource.BytesRefFieldSource;
+import org.apache.lucene.queries.function.valuesource.IntFieldSource;
+import org.apache.lucene.queries.function.valuesource.LongFieldSource;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PriceValueSourceBenchmark {
+    static final int NUM_DOCS = 1_000_000;
+    static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    static final LocalDateTime NOW = LocalDateTime.of(2015, 12, 24, 15, 0, 0);
+
+    Directory directory;
+    DirectoryReader reader;
+    IndexSearcher searcher;
+
+    ValueSource stringPriceValueSource;
+    ValueSource epochPriceValueSource;
+    ValueSource cachedEpochPriceValueSource;
+
+    public static void main(String... args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PriceValueSourceBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = new RAMDirectory();
+
+        Random random = new Random(42L);
+        LocalDateTime base = LocalDateTime.of(2015, 12, 1, 0, 0, 0);
+
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()))) {
+            for (int i = 0; i < NUM_DOCS; i++) {
+                LocalDateTime startDate = base.plusHours(random.nextInt(24 * 31));
+                LocalDateTime endDate = startDate.plusHours(1 + random.nextInt(24 * 7));
+
+                Document document = new Document();
+                document.add(new NumericDocValuesField("price", 1000 + random.nextInt(9000)));
+                document.add(new NumericDocValuesField("campaign_price", 500 + random.nextInt(9000)));
+                document.add(new SortedDocValuesField("start_date", new BytesRef(startDate.format(FORMATTER))));
+                document.add(new SortedDocValuesField("end_date", new BytesRef(endDate.format(FORMATTER))));
+                document.add(new NumericDocValuesField("start_date_epoch", startDate.toInstant(ZoneOffset.UTC).toEpochMilli()));
+                document.add(new NumericDocValuesField("end_date_epoch", endDate.toInstant(ZoneOffset.UTC).toEpochMilli()));
+                writer.addDocument(document);
+            }
+        }
+
+        reader = DirectoryReader.open(directory);
+        searcher = new IndexSearcher(reader);
+
+        stringPriceValueSource = new PriceValueSource(
+                new IntFieldSource("price"),
+                new IntFieldSource("campaign_price"),
+                new BytesRefFieldSource("start_date"),
+                new BytesRefFieldSource("end_date"),
+                NOW.format(FORMATTER)
+        );
+        epochPriceValueSource = new EpochPriceValueSource(
+                new IntFieldSource("price"),
+                new IntFieldSource("campaign_price"),
+                new LongFieldSource("start_date_epoch"),
+                new LongFieldSource("end_date_epoch"),
+                NOW.toInstant(ZoneOffset.UTC).toEpochMilli()
+        );
+        cachedEpochPriceValueSource = new CachedPriceValueSource(epochPriceValueSource, new PriceColumnCache(2));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        reader.close();
+        directory.close();
+    }
+
+    @Benchmark
+    public long stringDateComparison() throws IOException {
+        return sumPrices(stringPriceValueSource);
+    }
+
+    @Benchmark
+    public long epochDateComparison() throws IOException {
+        return sumPrices(epochPriceValueSource);
+    }
+
+    @Benchmark
+    public long cachedEpochDateComparison() throws IOException {
+        return sumPrices(cachedEpochPriceValueSource);
+    }
+
+    long sumPrices(ValueSource valueSource) throws IOException {
+        Map context = ValueSource.newContext(searcher);
+        long sum = 0L;
+
+        for (LeafReaderContext leaf : reader.leaves()) {
+            FunctionValues values = valueSource.getValues(context, leaf);
+            int maxDoc = leaf.reader().maxDoc();
+
+            for (int doc = 0; doc < maxDoc; doc++) {
+                sum += values.intVal(doc);
+            }
+        }
+
+        return sum;
+    }
+}